@@ -0,0 +1,95 @@
+#!/usr/bin/env python3
+"""
+Compare two JMH JSON result files (java -jar target/benchmarks.jar -prof gc -rf json -rff current.json).
+
+For every benchmark present in both files, prints the score and the allocation per operation
+(gc.alloc.rate.norm) of the baseline and of the current run, and flags the ones which got worse
+by more than the threshold. Exits with status 1 when at least one benchmark regressed.
+
+    python3 compare.py baselines/baseline.json current.json [--threshold 10]
+"""
+import argparse
+import json
+import sys
+
+# Modes ou un score plus haut est meilleur; pour avgt/sample/ss c'est l'inverse
+HIGHER_IS_BETTER = {"thrpt"}
+
+
+def load(path):
+    with open(path) as f:
+        results = json.load(f)
+    by_key = {}
+    for result in results:
+        params = result.get("params") or {}
+        key = result["benchmark"].rsplit(".", 2)[-2:]
+        name = ".".join(key)
+        if params:
+            name += "(" + ",".join(f"{k}={v}" for k, v in sorted(params.items())) + ")"
+        primary = result["primaryMetric"]
+        alloc = (result.get("secondaryMetrics") or {}).get("gc.alloc.rate.norm")
+        by_key[name] = {
+            "mode": result["mode"],
+            "score": primary["score"],
+            "error": primary.get("scoreError"),
+            "unit": primary["scoreUnit"],
+            "alloc": alloc["score"] if alloc else None,
+        }
+    return by_key
+
+
+def change(before, after):
+    if before == 0:
+        return 0.0
+    return (after - before) / before * 100.0
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Compare two JMH JSON result files")
+    parser.add_argument("baseline")
+    parser.add_argument("current")
+    parser.add_argument("--threshold", type=float, default=10.0,
+                        help="regression threshold in percent, for the score and the allocation (default 10)")
+    args = parser.parse_args()
+
+    baseline = load(args.baseline)
+    current = load(args.current)
+
+    regressions = []
+    header = f"{'benchmark':<62} {'baseline':>14} {'current':>14} {'diff':>8}   {'B/op base':>10} {'B/op now':>10} {'diff':>8}"
+    print(header)
+    print("-" * len(header))
+    for name in sorted(baseline.keys() & current.keys()):
+        b, c = baseline[name], current[name]
+        score_diff = change(b["score"], c["score"])
+        worse = -score_diff if b["mode"] in HIGHER_IS_BETTER else score_diff
+        unit = b["unit"].split("/")[0]
+        line = f"{name:<62} {b['score']:>10.3f} {unit:<3} {c['score']:>10.3f} {unit:<3} {score_diff:>+7.1f}%"
+
+        alloc_worse = 0.0
+        if b["alloc"] is not None and c["alloc"] is not None:
+            alloc_diff = change(b["alloc"], c["alloc"])
+            # Quelques octets d'ecart sur une petite allocation ne sont pas une regression
+            alloc_worse = alloc_diff if c["alloc"] - b["alloc"] > 16 else 0.0
+            line += f"   {b['alloc']:>10.0f} {c['alloc']:>10.0f} {alloc_diff:>+7.1f}%"
+
+        if worse > args.threshold or alloc_worse > args.threshold:
+            regressions.append(name)
+            line += "   REGRESSION"
+        print(line)
+
+    missing = sorted(baseline.keys() - current.keys())
+    if missing:
+        print("\nNot in the current run: " + ", ".join(missing))
+    added = sorted(current.keys() - baseline.keys())
+    if added:
+        print("New, without baseline: " + ", ".join(added))
+
+    if regressions:
+        print(f"\n{len(regressions)} benchmark(s) worse than the baseline by more than {args.threshold}%")
+        return 1
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,62 @@
+package com.ninehub.authentication.benchmarks;
+
+import com.ninehub.authentication.entity.Role;
+import com.ninehub.authentication.entity.User;
+import com.ninehub.authentication.entity.enums.RoleType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authorities of a role and of a user, read for every authenticated request,
+ * and the mask test behind {@code hasAuthority('ROLE_ADMIN')} in {@code @PreAuthorize}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthoritiesBenchmark {
+
+    @Param({"USER", "ADMIN"})
+    private RoleType roleType;
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = User.builder()
+                .id(1L)
+                .email("benchmark@example.com")
+                .role(Role.builder().roleType(roleType).build())
+                .build();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> roleAuthorities() {
+        return roleType.getAuthorities();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> userAuthorities() {
+        return user.getAuthorities();
+    }
+
+    @Benchmark
+    public boolean hasAdminAuthority() {
+        return roleType.hasAuthority("ROLE_ADMIN");
+    }
+}
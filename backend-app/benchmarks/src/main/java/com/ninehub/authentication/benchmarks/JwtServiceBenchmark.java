@@ -0,0 +1,87 @@
+package com.ninehub.authentication.benchmarks;
+
+import com.ninehub.authentication.entity.Role;
+import com.ninehub.authentication.entity.User;
+import com.ninehub.authentication.entity.enums.RoleType;
+import com.ninehub.authentication.repository.InMemoryTokenStore;
+import com.ninehub.authentication.security.JwtKeyRing;
+import com.ninehub.authentication.security.TokenRevocationIndex;
+import com.ninehub.authentication.service.JwtService;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuance on the login path (revocation of the previous tokens, signing, session save)
+ * for new users and for one user logging in again and again.
+ * The store lives for the whole trial, so the sessions left by earlier logins are part of what is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtKeyRing keyRing;
+    private JwtService jwtService;
+    private User newUser;
+    private User returningUser;
+    private long nextUserId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<JwtKeyRing.KeyMaterial> keys = List.of(
+                new JwtKeyRing.KeyMaterial(Jwts.SIG.RS256.keyPair().build(), Instant.EPOCH));
+        keyRing = new JwtKeyRing(3_600_000L, Duration.ofHours(2), Duration.ofHours(1), "", () -> keys);
+        jwtService = new JwtService(new InMemoryTokenStore(16, ""), keyRing,
+                new TokenRevocationIndex(), new SimpleMeterRegistry(), 3_600_000L, 86_400_000L);
+
+        newUser = user(1L);
+        returningUser = user(0L);
+    }
+
+    /**
+     * Login of a user without previous sessions
+     */
+    @Benchmark
+    public Map<String, String> generateForLogin() {
+        newUser.setId(++nextUserId);
+        return jwtService.generate(newUser);
+    }
+
+    /**
+     * The same user logging in again and again: each login revokes the previous session.
+     * Must stay as flat as generateForLogin, growing with the revoked sessions of the user is a regression.
+     */
+    @Benchmark
+    public Map<String, String> generateForRepeatLogin() {
+        return jwtService.generate(returningUser);
+    }
+
+    private static User user(long id) {
+        return User.builder()
+                .id(id)
+                .email("benchmark@example.com")
+                .firstName("Bench")
+                .role(Role.builder().roleType(RoleType.USER).build())
+                .build();
+    }
+}
@@ -0,0 +1,92 @@
+package com.ninehub.authentication.benchmarks;
+
+import com.ninehub.authentication.security.JwtKeyRing;
+import com.ninehub.authentication.security.JwtVerifier;
+import com.ninehub.authentication.security.VerifiedJwt;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verification done by the JwtFilter on every request: full parse and RS256 signature check, the rejection of a token with a bad signature,
+ * and a token signed with the former HMAC secret for comparison
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerifierBenchmark {
+
+    private static final String LEGACY_SECRET = "dGhpcy1pcy1hLWJlbmNobWFyay1zZWNyZXQtd2l0aC1lbm91Z2gtYnl0ZXMtZm9yLWhzMjU2";
+
+    private JwtVerifier verifier;
+    private String token;
+    private String tamperedToken;
+    private String legacyToken;
+
+    @Setup
+    public void setUp() {
+        List<JwtKeyRing.KeyMaterial> keys = List.of(
+                new JwtKeyRing.KeyMaterial(Jwts.SIG.RS256.keyPair().build(), Instant.EPOCH));
+        JwtKeyRing keyRing = new JwtKeyRing(3_600_000L, Duration.ofHours(2), Duration.ofHours(1), LEGACY_SECRET, () -> keys);
+        verifier = new JwtVerifier(keyRing);
+        token = claims()
+                .header().keyId(keyRing.current().kid()).and()
+                .signWith(keyRing.current().privateKey(), Jwts.SIG.RS256)
+                .compact();
+        char last = token.charAt(token.length() - 1);
+        tamperedToken = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+        legacyToken = claims()
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(LEGACY_SECRET)))
+                .compact();
+    }
+
+    private static JwtBuilder claims() {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(1, ChronoUnit.DAYS)))
+                .subject("benchmark@example.com")
+                .claim("email", "benchmark@example.com")
+                .claim("firstName", "Bench")
+                .claim("role", "USER");
+    }
+
+    @Benchmark
+    public Optional<VerifiedJwt> verify() {
+        return verifier.verify(token);
+    }
+
+    @Benchmark
+    public Optional<VerifiedJwt> rejectBadSignature() {
+        return verifier.verify(tamperedToken);
+    }
+
+    @Benchmark
+    public Optional<VerifiedJwt> verifyLegacyHmac() {
+        return verifier.verify(legacyToken);
+    }
+}
@@ -0,0 +1,66 @@
+package com.ninehub.authentication.benchmarks;
+
+import com.ninehub.authentication.service.MailDispatcher;
+import com.ninehub.authentication.service.NotificationService;
+import com.ninehub.authentication.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Email format check done on registration and import, and the activation email (MIME message and HTML body)
+ * built for each code, up to its hand-off to the dispatcher
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private NotificationService notificationService;
+
+    @Setup
+    public void setUp() {
+        // Rien n'est envoye: le dispatcher sans worker jette les messages au lieu de les mettre en file
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        MailDispatcher discarding = new MailDispatcher(mailSender, 0, 1, 1, Duration.ZERO, Duration.ZERO) {
+            @Override
+            public void dispatch(MimeMessage message) {
+            }
+        };
+        notificationService = new NotificationService(mailSender, discarding, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public boolean emailRegex(Emails emails) {
+        return UserService.isValidEmail(emails.email);
+    }
+
+    @Benchmark
+    public void activationEmail() {
+        notificationService.sendActivationEmail("jean.dupont@example.com", "Jean", "123456");
+    }
+
+    @State(Scope.Benchmark)
+    public static class Emails {
+        // Une adresse valide et une longue adresse invalide (pire cas de retour arriere de l'expression)
+        @Param({"jean.dupont+shop@example.com", "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa@bbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbb"})
+        public String email;
+    }
+}
@@ -1,5 +1,8 @@
 package com.ninehub.authentication.config;
 
+import com.ninehub.authentication.security.OffloadingPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -7,8 +10,16 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 @Configuration
 public class PasswordEncoderConfig {
 
+    /**
+     * BCrypt runs on its own pool, one thread per core unless configured otherwise.
+     * Hashes with a lower cost than {@code security.bcrypt.strength} are upgraded at the next login.
+     */
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public OffloadingPasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:10}") int strength,
+                                                     @Value("${security.bcrypt.threads:0}") int threads,
+                                                     @Value("${security.bcrypt.queue-capacity:64}") int queueCapacity,
+                                                     MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new OffloadingPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity, meterRegistry);
     }
-}
\ No newline at end of file
+}
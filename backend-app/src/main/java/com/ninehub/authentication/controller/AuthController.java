@@ -2,8 +2,13 @@ package com.ninehub.authentication.controller;
 
 import com.ninehub.authentication.dto.AuthentificationDto;
 import com.ninehub.authentication.entity.User;
+import com.ninehub.authentication.security.ActivationRequestLimiter;
+import com.ninehub.authentication.security.LoginAttemptLimiter;
+import com.ninehub.authentication.security.RequiresUserEntity;
 import com.ninehub.authentication.service.JwtService;
 import com.ninehub.authentication.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -12,13 +17,19 @@ import com.ninehub.authentication.dto.RegisterDto;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @Slf4j
 @RestController
@@ -29,17 +40,32 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final UserService userService;
     private final JwtService jwtService;
+    private final LoginAttemptLimiter loginAttemptLimiter;
+    private final ActivationRequestLimiter activationRequestLimiter;
+    private final MeterRegistry meterRegistry;
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody @Valid RegisterDto registerDto, HttpServletRequest request) {
         log.info("Registration attempt for email: {}", registerDto.getEmail());
 
-        if (userService.existsByEmail(registerDto.getEmail())) {
+        // Un seul aller-retour: l'index unique sur l'email detecte les doublons
+        User user;
+        try {
+            user = userService.inscription(registerDto);
+        } catch (DuplicateKeyException e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Email already registered"));
         }
-
-        User user = userService.inscription(registerDto);
-        userService.activateAccountRequest(user.getEmail());
+        try {
+            userService.activateAccountRequest(user);
+        } catch (RejectedExecutionException e) {
+            // Le compte est deja enregistre: un 503 ferait echouer le nouvel essai sur "Email already registered"
+            log.warn("Registration successful for: {} but the activation email could not be queued: {}",
+                    registerDto.getEmail(), e.getMessage());
+            return ResponseEntity.ok(Map.of(
+                    "message", "Registration successful! The activation email could not be sent right now, please request a new code from /activation.",
+                    "email", user.getEmail()
+            ));
+        }
 
         log.info("Registration successful for: {}. Activation code sent.", registerDto.getEmail());
 
@@ -49,6 +75,30 @@ public class AuthController {
         ));
     }
 
+    /**
+     * Send a new activation code, e.g. when the email sent at registration could not be queued.
+     * The answer is the same whether the account exists, is already active or not; requests are limited
+     * per email and per client address.
+     */
+    @PostMapping("/activation")
+    public ResponseEntity<?> resendActivationCode(@RequestBody Map<String, String> body, HttpServletRequest request) {
+        String email = body.get("email");
+        if (email == null || email.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Email is required"));
+        }
+        if (!activationRequestLimiter.tryAcquire(email, request.getRemoteAddr())) {
+            log.warn("Activation code requests throttled for email: {}", email);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(Map.of("error", "Too many activation code requests, please retry later."));
+        }
+        log.info("Activation code requested for email: {}", email);
+
+        userService.activateAccountRequest(email);
+        return ResponseEntity.ok(Map.of(
+                "message", "If an inactive account is registered with this email, a new activation code has been sent to it."
+        ));
+    }
+
     @PostMapping("/activate")
     public ResponseEntity<?> activateAccount(@RequestBody Map<String, String> request) {
         String email = request.get("email");
@@ -71,14 +121,50 @@ public class AuthController {
 
     @PostMapping("/login")
     @Operation(summary = "User login", description = "Permit to user to get connected on his/her account")
-    public Map<String, String> login(@RequestBody AuthentificationDto authentificationDto){
+    public Map<String, String> login(@RequestBody AuthentificationDto authentificationDto, HttpServletRequest request){
         log.info("Login attempt for user: {}", authentificationDto.username());
 
-        final Authentication authenticate = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(authentificationDto.username(), authentificationDto.password())
-        );
+        // Le timer est tague par issue: son compteur donne aussi le nombre de connexions de chaque type
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            Map<String, String> tokens = authenticate(authentificationDto, request);
+            outcome = tokens != null ? "success" : "rejected";
+            return tokens;
+        } catch (LockedException e) {
+            outcome = "locked";
+            throw e;
+        } catch (BadCredentialsException e) {
+            outcome = "bad_credentials";
+            throw e;
+        } catch (AuthenticationException e) {
+            outcome = "rejected";
+            throw e;
+        } catch (RejectedExecutionException e) {
+            outcome = "overloaded";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("auth.login", "outcome", outcome));
+        }
+    }
+
+    private Map<String, String> authenticate(AuthentificationDto authentificationDto, HttpServletRequest request){
+        // Rejeter les comptes et adresses verrouilles avant toute requete ou verification BCrypt
+        String clientAddress = request.getRemoteAddr();
+        loginAttemptLimiter.checkAllowed(authentificationDto.username(), clientAddress);
+
+        final Authentication authenticate;
+        try {
+            authenticate = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(authentificationDto.username(), authentificationDto.password())
+            );
+        } catch (BadCredentialsException e) {
+            loginAttemptLimiter.recordFailure(authentificationDto.username(), clientAddress);
+            throw e;
+        }
 
         if (authenticate.isAuthenticated()){
+            loginAttemptLimiter.recordSuccess(authentificationDto.username());
             User user = (User) authenticate.getPrincipal();
             log.info("User authenticated successfully: {}", user.getEmail());
 
@@ -108,6 +194,7 @@ public class AuthController {
         log.info("New Password created successful");
     }
 
+    @RequiresUserEntity
     @PostMapping("/signout")
     public ResponseEntity<?> signOut() {
         jwtService.signOut();
@@ -1,6 +1,9 @@
 package com.ninehub.authentication.controller;
 
+import com.ninehub.authentication.dto.AvisStats;
+import com.ninehub.authentication.dto.AvisView;
 import com.ninehub.authentication.entity.Avis;
+import com.ninehub.authentication.security.RequiresUserEntity;
 import com.ninehub.authentication.service.AvisService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -9,14 +12,19 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("avis")
 public class AvisController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final AvisService avisService;
 
+    @RequiresUserEntity
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping("/create")
     public void createAvis(@RequestBody Avis avis){
@@ -24,9 +32,43 @@ public class AvisController {
         this.avisService.createAvis(avis);
     }
 
+    /**
+     * Review feed, newest first. When the page is full, {@code X-Next-Before-Id} holds the cursor of the next page.
+     */
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
     @GetMapping("/all")
-    public ResponseEntity<List<Avis>> getAllAvis(){
-        return new ResponseEntity<>(avisService.getAllAvis(), HttpStatus.OK);
+    public ResponseEntity<List<AvisView>> getAllAvis(@RequestParam(required = false) Long beforeId,
+                                                     @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                                     @RequestParam(required = false) String status){
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<AvisView> feed = avisService.getAvisFeed(beforeId, pageSize, status);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (feed.size() == pageSize) {
+            response.header("X-Next-Before-Id", String.valueOf(feed.get(feed.size() - 1).id()));
+        }
+        return response.body(feed);
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<?> updateStatus(@PathVariable Long id, @RequestParam String status){
+        this.avisService.updateStatus(id, status);
+        return ResponseEntity.ok(Map.of("message", "Review status updated successfully"));
+    }
+
+    /**
+     * Review counts per status, served from in-memory counters
+     */
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/stats")
+    public AvisStats getStats(){
+        return this.avisService.getStats();
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/stats/users/{userId}")
+    public ResponseEntity<?> getUserStats(@PathVariable Long userId){
+        return ResponseEntity.ok(Map.of("userId", userId, "count", this.avisService.countForUser(userId)));
     }
 }
@@ -0,0 +1,35 @@
+package com.ninehub.authentication.controller;
+
+import com.ninehub.authentication.security.JwtKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Public keys verifying the access tokens, for the services checking them locally
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private static final MediaType JWK_SET = MediaType.parseMediaType("application/jwk-set+json");
+
+    private final JwtKeyRing keyRing;
+
+    /**
+     * The document only changes when a key is added to or dropped from the ring: cacheable for jwt.keys.jwks-max-age,
+     * then revalidated with the ETag (304 when unchanged)
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<String> jwks() {
+        JwtKeyRing.PublishedJwks jwks = keyRing.jwks();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(keyRing.jwksMaxAge()).cachePublic())
+                .eTag(jwks.etag())
+                .contentType(JWK_SET)
+                .body(jwks.json());
+    }
+}
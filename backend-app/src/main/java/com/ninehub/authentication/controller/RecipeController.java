@@ -0,0 +1,57 @@
+package com.ninehub.authentication.controller;
+
+import com.ninehub.authentication.dto.RecipeDto;
+import com.ninehub.authentication.service.RecipeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("recipes")
+public class RecipeController {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    // Ne pas depasser la taille de lot des etapes, sinon une page demande plusieurs requetes
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final RecipeService recipeService;
+
+    /**
+     * Recipe catalogue ordered by id. When the page is full, {@code X-Next-After-Id} holds the cursor of the next page.
+     */
+    @GetMapping
+    public ResponseEntity<List<RecipeDto>> listRecipes(@RequestParam(required = false) Long afterId,
+                                                       @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<RecipeDto> page = recipeService.listRecipes(afterId, pageSize);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == pageSize) {
+            response.header("X-Next-After-Id", String.valueOf(page.get(page.size() - 1).id()));
+        }
+        return response.body(page);
+    }
+
+    @GetMapping("/{id}")
+    public RecipeDto getRecipe(@PathVariable Long id) {
+        return recipeService.getRecipe(id);
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping
+    public RecipeDto createRecipe(@RequestBody RecipeDto recipe) {
+        return recipeService.createRecipe(recipe);
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PutMapping("/{id}")
+    public RecipeDto updateRecipe(@PathVariable Long id, @RequestBody RecipeDto recipe) {
+        return recipeService.updateRecipe(id, recipe);
+    }
+}
@@ -1,13 +1,27 @@
 package com.ninehub.authentication.controller;
 
-import com.ninehub.authentication.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ninehub.authentication.dto.ImportReport;
+import com.ninehub.authentication.dto.UserSummaryDto;
+import com.ninehub.authentication.entity.enums.RoleType;
+import com.ninehub.authentication.service.JwtService;
+import com.ninehub.authentication.service.UserImportReader;
+import com.ninehub.authentication.service.UserImportService;
 import com.ninehub.authentication.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 
@@ -17,14 +31,60 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class UserController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final UserService userService;
+    private final JwtService jwtService;
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * One page of users ordered by id. When the page is full, the {@code X-Next-After-Id} header
+     * holds the {@code afterId} to pass for the next one.
+     */
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        log.info("Admin fetching all users");
-        List<User> users = userService.getAllUser();
-        log.info("Returning {} users", users.size());
-        return ResponseEntity.ok(users);
+    public ResponseEntity<List<UserSummaryDto>> getAllUsers(@RequestParam(defaultValue = "0") long afterId,
+                                                            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                                            @RequestParam(required = false) Boolean active,
+                                                            @RequestParam(required = false) RoleType role) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<UserSummaryDto> users = userService.listUsers(afterId, pageSize, active, role);
+        log.info("Admin listing {} users after id {}", users.size(), afterId);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (users.size() == pageSize) {
+            response.header("X-Next-After-Id", String.valueOf(users.get(users.size() - 1).id()));
+        }
+        return response.body(users);
+    }
+
+    /**
+     * All matching users as newline-delimited JSON, written page by page while the table is read
+     */
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(required = false) Boolean active,
+                                                             @RequestParam(required = false) RoleType role) {
+        log.info("Admin exporting users");
+        ObjectWriter writer = objectMapper.writerFor(UserSummaryDto.class);
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            long count = userService.exportUsers(active, role, MAX_PAGE_SIZE, user -> {
+                try {
+                    // writeValue(out, ...) fermerait le flux apres la premiere ligne
+                    out.write(writer.writeValueAsBytes(user));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+            log.info("Exported {} users", count);
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
     }
 
     @DeleteMapping("/{id}")
@@ -40,4 +100,36 @@ public class UserController {
         userService.activateUserById(id);
         return ResponseEntity.ok(Map.of("message", "User activated successfully"));
     }
-}
\ No newline at end of file
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PostMapping("/tokens/revoke")
+    public ResponseEntity<?> revokeTokens(@RequestBody List<Long> userIds) {
+        log.info("Admin revoking tokens of {} users", userIds.size());
+        int revoked = jwtService.disableTokens(userIds);
+        return ResponseEntity.ok(Map.of("message", "Tokens revoked successfully", "revoked", revoked));
+    }
+
+    /**
+     * Bulk import of accounts from a CSV (with a header) or NDJSON body, read as it arrives.
+     * If the import is interrupted, send the same file again with the same {@code jobId} to resume it.
+     */
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ImportReport importUsers(@RequestParam String jobId,
+                                    @RequestParam(defaultValue = "false") boolean passwordsHashed,
+                                    @RequestParam(defaultValue = "true") boolean active,
+                                    @RequestHeader("Content-Type") String contentType,
+                                    InputStream body) throws IOException {
+        UserImportReader.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(NDJSON)
+                ? UserImportReader.Format.NDJSON
+                : UserImportReader.Format.CSV;
+        log.info("Admin starting user import {} ({})", jobId, format);
+        return userImportService.importUsers(jobId, body, format, passwordsHashed, active);
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/import/{jobId}")
+    public ImportReport importProgress(@PathVariable String jobId) {
+        return userImportService.progress(jobId);
+    }
+}
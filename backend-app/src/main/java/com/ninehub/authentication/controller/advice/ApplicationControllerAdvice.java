@@ -18,6 +18,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @Slf4j
 @RestControllerAdvice
@@ -67,6 +68,13 @@ public class ApplicationControllerAdvice {
         return ProblemDetail.forStatusAndDetail(HttpStatus.UNAUTHORIZED, "JWT token is expired");
     }
 
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ExceptionHandler(value = RejectedExecutionException.class)
+    public @ResponseBody ProblemDetail rejectedExecutionException(final RejectedExecutionException exception){
+        ApplicationControllerAdvice.log.warn(exception.getMessage());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, "The service is overloaded, please try again later");
+    }
+
     @ResponseStatus(HttpStatus.UNAUTHORIZED)
     @ExceptionHandler(value = Exception.class)
     public ResponseEntity<?> exceptionsHandler(Exception ex, HttpServletRequest request){
@@ -0,0 +1,13 @@
+package com.ninehub.authentication.dto;
+
+import java.time.Instant;
+
+/**
+ * Active access token about to be revoked, with the row id the revocation targets
+ */
+public record ActiveTokenDto(Long id, String tokenId, Instant expiresAt) {
+
+    public RevokedTokenDto toRevokedToken() {
+        return new RevokedTokenDto(tokenId, expiresAt);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ninehub.authentication.dto;
+
+/**
+ * Number of reviews with a given status written by a given user
+ */
+public record AvisCountDto(String status, Long userId, Long count) {
+}
@@ -0,0 +1,11 @@
+package com.ninehub.authentication.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Review counts for the moderation dashboard
+ * @param reconciledAt last time the counters were checked against the database
+ */
+public record AvisStats(long total, Map<String, Long> byStatus, Instant reconciledAt) {
+}
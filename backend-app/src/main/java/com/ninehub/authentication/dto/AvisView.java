@@ -0,0 +1,7 @@
+package com.ninehub.authentication.dto;
+
+/**
+ * A review as shown in the feed: only the author's first name is exposed
+ */
+public record AvisView(Long id, String message, String status, String authorFirstName) {
+}
@@ -0,0 +1,29 @@
+package com.ninehub.authentication.dto;
+
+import com.ninehub.authentication.entity.ImportCheckpoint;
+import com.ninehub.authentication.entity.enums.ImportStatus;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Progress of a bulk import
+ * @param errors the first rejected records of this run, with their line number and reason
+ */
+public record ImportReport(String jobId, ImportStatus status, long processed, long imported, long duplicates,
+                           long rejected, Instant startedAt, Instant updatedAt, List<String> errors) {
+
+    public static ImportReport from(ImportCheckpoint checkpoint, List<String> errors) {
+        return new ImportReport(
+                checkpoint.getJobId(),
+                checkpoint.getStatus(),
+                checkpoint.getProcessed(),
+                checkpoint.getImported(),
+                checkpoint.getDuplicates(),
+                checkpoint.getRejected(),
+                checkpoint.getStartedAt(),
+                checkpoint.getUpdatedAt(),
+                errors
+        );
+    }
+}
@@ -0,0 +1,10 @@
+package com.ninehub.authentication.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * One account of a bulk import file, either a CSV row or an NDJSON line
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ImportUserRecord(String email, String firstName, String password) {
+}
@@ -0,0 +1,6 @@
+package com.ninehub.authentication.dto;
+
+import java.time.Duration;
+
+public record PurgeReport(long tokensPurged, long validationsPurged, Duration duration) {
+}
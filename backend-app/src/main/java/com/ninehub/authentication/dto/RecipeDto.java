@@ -0,0 +1,24 @@
+package com.ninehub.authentication.dto;
+
+import com.ninehub.authentication.entity.Recipes;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A recipe with its steps in order, as returned by the catalogue and accepted on create and update
+ */
+public record RecipeDto(Long id, String title, String ingredients, LocalDateTime createdAt, List<StepDto> steps) {
+
+    public static RecipeDto from(Recipes recipe) {
+        return new RecipeDto(
+                recipe.getId(),
+                recipe.getTitle(),
+                recipe.getIngredients(),
+                recipe.getCreatedAt(),
+                recipe.getSteps().stream()
+                        .map(step -> new StepDto(step.getOrder(), step.getInstructions()))
+                        .toList()
+        );
+    }
+}
@@ -0,0 +1,6 @@
+package com.ninehub.authentication.dto;
+
+import java.time.Instant;
+
+public record RevokedTokenDto(String tokenId, Instant expiresAt) {
+}
@@ -0,0 +1,4 @@
+package com.ninehub.authentication.dto;
+
+public record StepDto(int order, String instructions) {
+}
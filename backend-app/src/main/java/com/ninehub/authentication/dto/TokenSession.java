@@ -0,0 +1,37 @@
+package com.ninehub.authentication.dto;
+
+import com.ninehub.authentication.entity.enums.RoleType;
+
+import java.time.Instant;
+
+/**
+ * A login session as kept by a {@link com.ninehub.authentication.repository.TokenStore}:
+ * the digests of the access and refresh tokens, their expiry and the claims needed to issue new tokens.
+ */
+public record TokenSession(byte[] accessHash,
+                           String tokenId,
+                           Instant accessExpiresAt,
+                           byte[] refreshHash,
+                           Instant refreshExpiresAt,
+                           Long userId,
+                           String email,
+                           String firstName,
+                           RoleType roleType,
+                           boolean revoked) {
+
+    public TokenSession withRevoked() {
+        return new TokenSession(accessHash, tokenId, accessExpiresAt, refreshHash, refreshExpiresAt,
+                userId, email, firstName, roleType, true);
+    }
+
+    /**
+     * A session can be dropped once its access token expired and it can no longer be refreshed
+     */
+    public boolean isPurgeable(Instant now) {
+        return accessExpiresAt.isBefore(now) && (revoked || refreshExpiresAt.isBefore(now));
+    }
+
+    public RevokedTokenDto toRevokedToken() {
+        return new RevokedTokenDto(tokenId, accessExpiresAt);
+    }
+}
@@ -0,0 +1,4 @@
+package com.ninehub.authentication.dto;
+
+public record UserEmailDto(Long id, String email) {
+}
@@ -0,0 +1,20 @@
+package com.ninehub.authentication.dto;
+
+import com.ninehub.authentication.entity.enums.RoleType;
+
+/**
+ * Columns of a user needed by the admin listing; keeps the JSON shape the dashboard reads
+ * ({@code isActif}, {@code role.roleType}) without ever carrying the password hash.
+ */
+public record UserSummaryDto(Long id, String firstName, String email, boolean isActif, RoleView role) {
+
+    /**
+     * Used by the JPQL projection
+     */
+    public UserSummaryDto(Long id, String firstName, String email, boolean isActif, RoleType roleType) {
+        this(id, firstName, email, isActif, new RoleView(roleType));
+    }
+
+    public record RoleView(RoleType roleType) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.ninehub.authentication.dto;
+
+import com.ninehub.authentication.entity.enums.CodePurpose;
+
+import java.time.Instant;
+
+/**
+ * A code of the validation table with the wrong guesses counted so far
+ */
+public record VerificationCodeDto(Long id, Long userId, CodePurpose purpose, String code, Instant expiresAt,
+                                  int failedAttempts) {
+}
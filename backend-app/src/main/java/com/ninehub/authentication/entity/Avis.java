@@ -7,7 +7,7 @@ import lombok.Setter;
 @Getter
 @Setter
 @Entity
-@Table(name = "avis")
+@Table(name = "avis", indexes = @Index(name = "ix_avis_status_id", columnList = "status, id"))
 public class Avis {
     @Id
     @GeneratedValue(strategy=GenerationType.IDENTITY)
@@ -0,0 +1,40 @@
+package com.ninehub.authentication.entity;
+
+import com.ninehub.authentication.entity.enums.ImportStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Progress of a bulk user import, written in the same transaction as each imported chunk.
+ * Sending the same file again with the same job id resumes after the last committed record.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "import_checkpoint")
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportCheckpoint {
+    @Id
+    @Column(length = 64)
+    private String jobId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private ImportStatus status;
+
+    // Records read from the file and committed, whatever their outcome
+    private long processed;
+
+    private long imported;
+    private long duplicates;
+    private long rejected;
+
+    private Instant startedAt;
+    private Instant updatedAt;
+}
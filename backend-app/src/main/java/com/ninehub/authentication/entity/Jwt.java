@@ -3,19 +3,35 @@ package com.ninehub.authentication.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
+
 @Getter
 @Setter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "jwt")
+@Table(name = "jwt", indexes = {
+        @Index(name = "ux_jwt_value_hash", columnList = "value_hash", unique = true),
+        @Index(name = "ix_jwt_user_status", columnList = "user_id, deactivate, expired"),
+        @Index(name = "ix_jwt_expires_at", columnList = "expires_at")
+})
 public class Jwt {
     @Id
     @GeneratedValue(strategy= GenerationType.IDENTITY)
     private Long id;
 
-    private String value;
+    // SHA-256 du jeton compact, le jeton lui-meme n'est jamais stocke
+    @Column(name = "value_hash", length = 32, nullable = false)
+    private byte[] valueHash;
+
+    // Claim jti du jeton, utilise par l'index de revocation
+    @Column(name = "token_id", length = 100)
+    private String tokenId;
+
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+
     private boolean deactivate;
     private boolean expired;
 
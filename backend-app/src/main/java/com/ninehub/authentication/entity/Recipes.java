@@ -3,6 +3,7 @@ package com.ninehub.authentication.entity;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -22,6 +23,9 @@ public class Recipes {
     private String title;
     private String ingredients;
 
+    // Les etapes d'une page de recettes sont chargees en une requete, pas une par recette
+    @BatchSize(size = 100)
+    @OrderBy("order ASC")
     @OneToMany(mappedBy = "recipes", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Step> steps = new ArrayList<>();
 
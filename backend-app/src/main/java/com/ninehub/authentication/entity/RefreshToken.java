@@ -4,7 +4,6 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.Instant;
-import java.util.Date;
 
 @Getter
 @Setter
@@ -12,14 +11,20 @@ import java.util.Date;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "refresh-token")
+@Table(name = "refresh_token", indexes = {
+        @Index(name = "ux_refresh_token_hash", columnList = "token_hash", unique = true)
+})
 public class RefreshToken {
     @Id
     @GeneratedValue(strategy= GenerationType.IDENTITY)
     private Long id;
 
     private boolean isExpired;
-    private String refreshTokenValue;
+
+    // SHA-256 de la valeur remise au client
+    @Column(name = "token_hash", length = 32, nullable = false)
+    private byte[] tokenHash;
+
     private Instant createdAt;
     private Instant expiredAt;
 }
@@ -7,12 +7,15 @@ import lombok.Setter;
 @Getter
 @Setter
 @Entity
+@Table(indexes = @Index(name = "ix_step_recipe_order", columnList = "recipes_id, step_order"))
 public class Step {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     private String instructions;
+    // "order" est un mot reserve en SQL
+    @Column(name = "step_order")
     private int order;
 
     @ManyToOne
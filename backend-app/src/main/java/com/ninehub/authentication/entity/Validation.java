@@ -1,5 +1,6 @@
 package com.ninehub.authentication.entity;
 
+import com.ninehub.authentication.entity.enums.CodePurpose;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -11,6 +12,10 @@ import java.time.Instant;
 @Getter
 @Setter
 @Entity
+@Table(indexes = {
+        @Index(name = "ix_validation_expired_at", columnList = "expiredAt"),
+        @Index(name = "ix_validation_user_purpose", columnList = "user_id, purpose")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 public class Validation {
@@ -29,6 +34,14 @@ public class Validation {
 
     private String code;
 
+    // Wrong guesses, counted here so that every instance enforces the same limit
+    @Column(nullable = false)
+    private int failedAttempts;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32)
+    private CodePurpose purpose;
+
     // One code is for only one user
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     private User user;
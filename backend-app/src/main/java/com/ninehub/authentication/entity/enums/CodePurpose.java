@@ -0,0 +1,9 @@
+package com.ninehub.authentication.entity.enums;
+
+/**
+ * What a verification code sent by email is used for; a user holds at most one code per purpose
+ */
+public enum CodePurpose {
+    ACTIVATION,
+    PASSWORD_RESET
+}
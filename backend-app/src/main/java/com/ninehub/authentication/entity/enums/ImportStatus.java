@@ -0,0 +1,7 @@
+package com.ninehub.authentication.entity.enums;
+
+public enum ImportStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -21,4 +21,11 @@ public enum PermissionType {
     @Getter
     private String permission;
 
+    /**
+     * Bit of this permission in {@link RoleType#getAuthorityMask()}; the 32 low bits are reserved for permissions
+     */
+    public long mask() {
+        return 1L << this.ordinal();
+    }
+
 }
@@ -1,17 +1,16 @@
 package com.ninehub.authentication.entity.enums;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
-import com.ninehub.authentication.entity.enums.PermissionType.*;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
-@AllArgsConstructor
 public enum RoleType {
     // On recupere les permission associer a chaque roles
     USER(
@@ -43,21 +42,73 @@ public enum RoleType {
 
 //    CHIEF;
 
+    // Bit de chaque autorite (permission ou ROLE_*), pour tester une autorite par un masque
+    private static final Map<String, Long> AUTHORITY_BITS = new HashMap<>();
+
+    static {
+        for (PermissionType permission : PermissionType.values()) {
+            AUTHORITY_BITS.put(permission.name(), permission.mask());
+        }
+        for (RoleType role : values()) {
+            AUTHORITY_BITS.put("ROLE_" + role.name(), role.roleBit());
+        }
+    }
+
     @Getter
-    Set<PermissionType> permissionType;
+    private final Set<PermissionType> permissionType;
 
+    // Calculees une fois par role et partagees: aucune allocation par requete
+    private final List<GrantedAuthority> authorities;
+    private final long authorityMask;
 
-//    <E> RoleType(Set<E> userCreateAvis) {
-//    }
+    RoleType(Set<PermissionType> permissionType) {
+        this.permissionType = permissionType;
 
-    // Cette methode permet de recupérer les permissions et de lès associer aux roles
+        // Les permissions puis le role, pour pouvoir autoriser les actions de l'utilisateur
+        List<GrantedAuthority> grantedAuthorities = new ArrayList<>();
+        long mask = roleBit();
+        for (PermissionType permission : PermissionType.values()) {
+            if (permissionType.contains(permission)) {
+                grantedAuthorities.add(new SimpleGrantedAuthority(permission.name()));
+                mask |= permission.mask();
+            }
+        }
+        grantedAuthorities.add(new SimpleGrantedAuthority("ROLE_" + this.name()));
+        this.authorities = List.copyOf(grantedAuthorities);
+        this.authorityMask = mask;
+    }
+
+    /**
+     * Permissions and role of this role type, as an immutable list shared by every user having it
+     */
     public Collection<? extends GrantedAuthority> getAuthorities(){
-        List<SimpleGrantedAuthority> grantedAuthorities = this.getPermissionType().stream().map(
-                permission -> new SimpleGrantedAuthority(permission.name())
-        ).collect(Collectors.toList());
+        return this.authorities;
+    }
 
-        // On ajoute les roles et les permissions pour pouvoir autoriser les actions de l'utilisateur
-        grantedAuthorities.add(new SimpleGrantedAuthority("ROLE_" + this.name()));
-        return grantedAuthorities;
+    /**
+     * Bits of the permissions and of the role, see {@link #bitOf(String)}
+     */
+    public long getAuthorityMask() {
+        return this.authorityMask;
+    }
+
+    /**
+     * Whether this role grants the authority (a permission name or ROLE_*), with a single mask test
+     */
+    public boolean hasAuthority(String authority) {
+        return (this.authorityMask & bitOf(authority)) != 0;
+    }
+
+    /**
+     * Bit of an authority, 0 for an authority no role grants
+     */
+    public static long bitOf(String authority) {
+        Long bit = AUTHORITY_BITS.get(authority);
+        return bit != null ? bit : 0L;
+    }
+
+    // Les roles utilisent les bits hauts, les permissions les bits bas (voir PermissionType#mask)
+    private long roleBit() {
+        return 1L << (32 + this.ordinal());
     }
 }
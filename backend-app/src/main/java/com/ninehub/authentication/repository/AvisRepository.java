@@ -1,10 +1,43 @@
 package com.ninehub.authentication.repository;
 
+import com.ninehub.authentication.dto.AvisCountDto;
+import com.ninehub.authentication.dto.AvisView;
 import com.ninehub.authentication.entity.Avis;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 public interface AvisRepository extends JpaRepository<Avis, Long> {
-//    List<Avis> getAllAvis();
+
+    /**
+     * Newest reviews first, older than the cursor, optionally with a given status.
+     * The author is joined in the same query, no user or role entity is loaded.
+     */
+    @Query("SELECT new com.ninehub.authentication.dto.AvisView(a.id, a.message, a.status, u.firstName) " +
+            "FROM Avis a LEFT JOIN a.user u " +
+            "WHERE a.id < :beforeId AND (:status IS NULL OR a.status = :status) " +
+            "ORDER BY a.id DESC")
+    List<AvisView> findFeed(Long beforeId, String status, Pageable pageable);
+
+    /**
+     * Review counts grouped by status and author, used to initialise the moderation counters
+     */
+    @Query("SELECT new com.ninehub.authentication.dto.AvisCountDto(a.status, a.user.id, COUNT(a)) " +
+            "FROM Avis a GROUP BY a.status, a.user.id")
+    List<AvisCountDto> countByStatusAndUser();
+
+    /**
+     * Set the status of a review only if it still has the expected one (null included).
+     * Returns 0 when another moderator changed it meanwhile; the persistence context is cleared so the
+     * review read next is the one in the database.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Avis a SET a.status = :newStatus WHERE a.id = :id " +
+            "AND (a.status = :oldStatus OR (a.status IS NULL AND :oldStatus IS NULL))")
+    int changeStatus(Long id, String oldStatus, String newStatus);
 }
@@ -0,0 +1,7 @@
+package com.ninehub.authentication.repository;
+
+import com.ninehub.authentication.entity.ImportCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ImportCheckpointRepository extends JpaRepository<ImportCheckpoint, String> {
+}
@@ -0,0 +1,300 @@
+package com.ninehub.authentication.repository;
+
+import com.ninehub.authentication.dto.RevokedTokenDto;
+import com.ninehub.authentication.dto.TokenSession;
+import com.ninehub.authentication.entity.enums.RoleType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Sessions kept in memory only, for deployments which do not need them to survive a restart
+ * (unless a snapshot file is configured).
+ * Lookups by token digest go through lock-free maps; changes to the sessions of a user take the lock
+ * of the shard owning that user, so unrelated users never contend.
+ * Refreshed tokens carry the claims captured at login, the user is not read again.
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(name = "token.store", havingValue = "memory")
+public class InMemoryTokenStore implements TokenStore {
+
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final Shard[] shards;
+    private final ConcurrentHashMap<Digest, TokenSession> byAccess = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Digest, TokenSession> byRefresh = new ConcurrentHashMap<>();
+    private final Path snapshotFile;
+
+    public InMemoryTokenStore(@Value("${token.store.memory.shards:16}") int shardCount,
+                              @Value("${token.store.memory.snapshot-file:}") String snapshotFile) {
+        // Puissance de deux pour choisir le shard avec un masque
+        int size = Integer.highestOneBit(Math.max(1, shardCount - 1)) << 1;
+        this.shards = new Shard[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new Shard();
+        }
+        this.snapshotFile = StringUtils.hasText(snapshotFile) ? Path.of(snapshotFile) : null;
+    }
+
+    @Override
+    public void save(TokenSession session) {
+        Shard shard = shardOf(session.userId());
+        shard.lock.lock();
+        try {
+            shard.byUser.computeIfAbsent(session.userId(), id -> new ArrayList<>()).add(session);
+            index(session);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public List<RevokedTokenDto> replaceSessions(TokenSession session) {
+        List<RevokedTokenDto> revoked = new ArrayList<>();
+        Shard shard = shardOf(session.userId());
+        shard.lock.lock();
+        try {
+            revokeLocked(shard, session.userId(), revoked);
+            shard.byUser.computeIfAbsent(session.userId(), id -> new ArrayList<>()).add(session);
+            index(session);
+        } finally {
+            shard.lock.unlock();
+        }
+        return revoked;
+    }
+
+    @Override
+    public Optional<TokenSession> findByAccessHash(byte[] accessHash) {
+        return Optional.ofNullable(byAccess.get(new Digest(accessHash)));
+    }
+
+    @Override
+    public Optional<TokenSession> findByRefreshHash(byte[] refreshHash) {
+        return Optional.ofNullable(byRefresh.get(new Digest(refreshHash)));
+    }
+
+    @Override
+    public List<RevokedTokenDto> revokeAllForUsers(Collection<Long> userIds) {
+        List<RevokedTokenDto> revoked = new ArrayList<>();
+        for (Long userId : userIds) {
+            Shard shard = shardOf(userId);
+            shard.lock.lock();
+            try {
+                revokeLocked(shard, userId, revoked);
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return revoked;
+    }
+
+    @Override
+    public void forEachRevokedToken(Instant now, Consumer<RevokedTokenDto> consumer) {
+        byAccess.values().stream()
+                .filter(session -> session.revoked() && session.accessExpiresAt().isAfter(now))
+                .forEach(session -> consumer.accept(session.toRevokedToken()));
+    }
+
+    @Override
+    public int purgeExpired(Instant now, int limit) {
+        int purged = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                Iterator<List<TokenSession>> users = shard.byUser.values().iterator();
+                while (users.hasNext() && purged < limit) {
+                    List<TokenSession> sessions = users.next();
+                    Iterator<TokenSession> iterator = sessions.iterator();
+                    while (iterator.hasNext() && purged < limit) {
+                        TokenSession session = iterator.next();
+                        if (session.isPurgeable(now)) {
+                            iterator.remove();
+                            byAccess.remove(new Digest(session.accessHash()));
+                            byRefresh.remove(new Digest(session.refreshHash()));
+                            purged++;
+                        }
+                    }
+                    if (sessions.isEmpty()) {
+                        users.remove();
+                    }
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+            if (purged >= limit) {
+                break;
+            }
+        }
+        return purged;
+    }
+
+    /**
+     * TTL eviction of the sessions which can no longer be used
+     */
+    @Scheduled(fixedDelayString = "${token.store.memory.eviction-interval:PT1M}")
+    public void evictExpired() {
+        int evicted = purgeExpired(Instant.now(), Integer.MAX_VALUE);
+        if (evicted > 0) {
+            log.debug("Evicted {} expired sessions", evicted);
+        }
+    }
+
+    public int size() {
+        return byAccess.size();
+    }
+
+    @PostConstruct
+    public void loadSnapshot() throws IOException {
+        if (snapshotFile == null || !Files.exists(snapshotFile)) {
+            return;
+        }
+        Instant now = Instant.now();
+        int loaded = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("Ignoring session snapshot {} written by another version", snapshotFile);
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                TokenSession session = readSession(in);
+                if (!session.isPurgeable(now)) {
+                    save(session);
+                    loaded++;
+                }
+            }
+        }
+        log.info("Loaded {} sessions from {}", loaded, snapshotFile);
+    }
+
+    @PreDestroy
+    public void writeSnapshot() throws IOException {
+        if (snapshotFile == null) {
+            return;
+        }
+        List<TokenSession> sessions = new ArrayList<>(byAccess.values());
+        // Ecrire dans un fichier temporaire puis le renommer: un arret brutal ne laisse jamais un snapshot tronque
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(sessions.size());
+            for (TokenSession session : sessions) {
+                writeSession(out, session);
+            }
+        }
+        Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Wrote {} sessions to {}", sessions.size(), snapshotFile);
+    }
+
+    /**
+     * Revoke the active sessions of a user, the lock of its shard being held
+     */
+    private void revokeLocked(Shard shard, Long userId, List<RevokedTokenDto> revoked) {
+        List<TokenSession> sessions = shard.byUser.getOrDefault(userId, List.of());
+        for (int i = 0; i < sessions.size(); i++) {
+            TokenSession session = sessions.get(i);
+            if (!session.revoked()) {
+                TokenSession revokedSession = session.withRevoked();
+                sessions.set(i, revokedSession);
+                index(revokedSession);
+                revoked.add(session.toRevokedToken());
+            }
+        }
+    }
+
+    private void index(TokenSession session) {
+        byAccess.put(new Digest(session.accessHash()), session);
+        byRefresh.put(new Digest(session.refreshHash()), session);
+    }
+
+    private Shard shardOf(Long userId) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return shards[(int) (h ^ (h >>> 32)) & (shards.length - 1)];
+    }
+
+    private static void writeSession(DataOutputStream out, TokenSession session) throws IOException {
+        writeBytes(out, session.accessHash());
+        out.writeUTF(session.tokenId());
+        out.writeLong(session.accessExpiresAt().toEpochMilli());
+        writeBytes(out, session.refreshHash());
+        out.writeLong(session.refreshExpiresAt().toEpochMilli());
+        out.writeLong(session.userId());
+        out.writeUTF(session.email());
+        out.writeUTF(session.firstName() != null ? session.firstName() : "");
+        out.writeUTF(session.roleType().name());
+        out.writeBoolean(session.revoked());
+    }
+
+    private static TokenSession readSession(DataInputStream in) throws IOException {
+        return new TokenSession(
+                readBytes(in),
+                in.readUTF(),
+                Instant.ofEpochMilli(in.readLong()),
+                readBytes(in),
+                Instant.ofEpochMilli(in.readLong()),
+                in.readLong(),
+                in.readUTF(),
+                in.readUTF(),
+                RoleType.valueOf(in.readUTF()),
+                in.readBoolean()
+        );
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, List<TokenSession>> byUser = new HashMap<>();
+    }
+
+    /**
+     * Map key comparing token digests by content
+     */
+    private record Digest(byte[] bytes) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Digest other && Arrays.equals(bytes, other.bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(bytes);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.ninehub.authentication.repository;
+
+import com.ninehub.authentication.dto.ActiveTokenDto;
+import com.ninehub.authentication.dto.RevokedTokenDto;
+import com.ninehub.authentication.dto.TokenSession;
+import com.ninehub.authentication.entity.Jwt;
+import com.ninehub.authentication.entity.RefreshToken;
+import com.ninehub.authentication.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Durable sessions stored in the {@code jwt} and {@code refresh_token} tables
+ */
+@Repository
+@Transactional
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "token.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaTokenStore implements TokenStore {
+
+    private final JwtRepository jwtRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+
+    @Override
+    public void save(TokenSession session) {
+        RefreshToken refreshToken = RefreshToken.builder()
+                .tokenHash(session.refreshHash())
+                .isExpired(false)
+                .createdAt(Instant.now())
+                .expiredAt(session.refreshExpiresAt())
+                .build();
+
+        Jwt jwt = Jwt.builder()
+                .valueHash(session.accessHash())
+                .tokenId(session.tokenId())
+                .expiresAt(session.accessExpiresAt())
+                .deactivate(session.revoked())
+                .expired(session.revoked())
+                .user(userRepository.getReferenceById(session.userId()))
+                .refreshToken(refreshToken)
+                .build();
+
+        jwtRepository.save(jwt);
+    }
+
+    @Override
+    public List<RevokedTokenDto> replaceSessions(TokenSession session) {
+        List<RevokedTokenDto> revoked = this.revokeAllForUsers(List.of(session.userId()));
+        this.save(session);
+        return revoked;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<TokenSession> findByAccessHash(byte[] accessHash) {
+        return jwtRepository.findByValueHash(accessHash).map(JpaTokenStore::toSession);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<TokenSession> findByRefreshHash(byte[] refreshHash) {
+        return jwtRepository.findByRefreshTokenHash(refreshHash).map(JpaTokenStore::toSession);
+    }
+
+    @Override
+    public List<RevokedTokenDto> revokeAllForUsers(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        // Verrou sur les lignes users: connexions, rafraichissements et revocations d'un meme utilisateur
+        // passent l'un apres l'autre, aucune session ne peut etre creee entre la lecture et la mise a jour
+        userRepository.lockAllByIds(userIds);
+        // Les jetons sont lus avant la mise a jour: seuls ceux-ci sont desactives et rendus a l'appelant
+        List<ActiveTokenDto> active = jwtRepository.findActiveTokensByUserIds(userIds);
+        if (active.isEmpty()) {
+            return List.of();
+        }
+        jwtRepository.deactivateAllByIds(active.stream().map(ActiveTokenDto::id).toList());
+        return active.stream().map(ActiveTokenDto::toRevokedToken).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachRevokedToken(Instant now, Consumer<RevokedTokenDto> consumer) {
+        try (Stream<RevokedTokenDto> revoked = jwtRepository.streamRevokedTokens(now)) {
+            revoked.forEach(consumer);
+        }
+    }
+
+    @Override
+    public int purgeExpired(Instant now, int limit) {
+        List<Long> ids = jwtRepository.findPurgeableIds(now, PageRequest.of(0, limit));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // Le jwt reference son refresh token: supprimer le jwt d'abord
+        List<Long> refreshTokenIds = jwtRepository.findRefreshTokenIds(ids);
+        int deleted = jwtRepository.deleteAllByIds(ids);
+        if (!refreshTokenIds.isEmpty()) {
+            refreshTokenRepository.deleteAllByIds(refreshTokenIds);
+        }
+        return deleted;
+    }
+
+    private static TokenSession toSession(Jwt jwt) {
+        User user = jwt.getUser();
+        RefreshToken refreshToken = jwt.getRefreshToken();
+        return new TokenSession(
+                jwt.getValueHash(),
+                jwt.getTokenId(),
+                jwt.getExpiresAt(),
+                refreshToken != null ? refreshToken.getTokenHash() : null,
+                refreshToken != null ? refreshToken.getExpiredAt() : null,
+                user.getId(),
+                user.getEmail(),
+                user.getFirstName(),
+                user.getRole() != null ? user.getRole().getRoleType() : null,
+                jwt.isDeactivate() || jwt.isExpired()
+        );
+    }
+}
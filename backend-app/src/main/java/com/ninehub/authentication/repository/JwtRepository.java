@@ -1,23 +1,61 @@
 package com.ninehub.authentication.repository;
 
+import com.ninehub.authentication.dto.ActiveTokenDto;
+import com.ninehub.authentication.dto.RevokedTokenDto;
 import com.ninehub.authentication.entity.Jwt;
 import com.ninehub.authentication.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface JwtRepository extends JpaRepository<Jwt, Long> {
 
     Optional<List<Jwt>> findByUserAndDeactivateAndExpired(User user, boolean deactivate, boolean expired);
 
-    Optional<Jwt> findByValue(String value);
+    Optional<Jwt> findByValueHash(byte[] valueHash);
 
-    @Query("SELECT j FROM Jwt j WHERE j.refreshToken.refreshTokenValue = :refreshTokenValue")
-    Optional<Jwt> findByRefreshTokenRefreshTokenValue(String refreshTokenValue);
+    @Query("SELECT j FROM Jwt j JOIN FETCH j.refreshToken r JOIN FETCH j.user WHERE r.tokenHash = :tokenHash")
+    Optional<Jwt> findByRefreshTokenHash(byte[] tokenHash);
 
-    void deleteAllByExpiredAndDeactivate(boolean expired, boolean deactivate);
-}
\ No newline at end of file
+    @Query("SELECT new com.ninehub.authentication.dto.RevokedTokenDto(j.tokenId, j.expiresAt) FROM Jwt j " +
+            "WHERE j.deactivate = true AND j.tokenId IS NOT NULL AND j.expiresAt > :now")
+    Stream<RevokedTokenDto> streamRevokedTokens(Instant now);
+
+    /**
+     * Active tokens of the given users, selected before they are disabled so the caller knows exactly which ones it revoked
+     */
+    @Query("SELECT new com.ninehub.authentication.dto.ActiveTokenDto(j.id, j.tokenId, j.expiresAt) FROM Jwt j " +
+            "WHERE j.user.id IN :userIds AND j.deactivate = false AND j.expired = false")
+    List<ActiveTokenDto> findActiveTokensByUserIds(Collection<Long> userIds);
+
+    /**
+     * Disable in one statement the given tokens, skipping those already disabled
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Jwt j SET j.deactivate = true, j.expired = true " +
+            "WHERE j.id IN :ids AND j.deactivate = false AND j.expired = false")
+    int deactivateAllByIds(Collection<Long> ids);
+
+    /**
+     * Tokens which can no longer be used: the access token expired and it was either revoked or its refresh token expired
+     */
+    @Query("SELECT j.id FROM Jwt j LEFT JOIN j.refreshToken r " +
+            "WHERE j.expiresAt < :now AND (j.deactivate = true OR r.id IS NULL OR r.expiredAt < :now) ORDER BY j.id")
+    List<Long> findPurgeableIds(Instant now, Pageable pageable);
+
+    @Query("SELECT j.refreshToken.id FROM Jwt j WHERE j.id IN :ids AND j.refreshToken IS NOT NULL")
+    List<Long> findRefreshTokenIds(Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Jwt j WHERE j.id IN :ids")
+    int deleteAllByIds(Collection<Long> ids);
+}
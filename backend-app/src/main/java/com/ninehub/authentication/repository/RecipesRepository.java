@@ -0,0 +1,27 @@
+package com.ninehub.authentication.repository;
+
+import com.ninehub.authentication.entity.Recipes;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface RecipesRepository extends JpaRepository<Recipes, Long> {
+
+    /**
+     * One page of recipes ordered by id, after the cursor.
+     * Their steps are loaded on first access, for the whole page at once (see the batch size on {@link Recipes#getSteps()}).
+     */
+    @Query("SELECT r FROM Recipes r WHERE r.id > :afterId ORDER BY r.id")
+    List<Recipes> findPageAfter(Long afterId, Pageable pageable);
+
+    /**
+     * The recipe and its steps in a single query
+     */
+    @EntityGraph(attributePaths = "steps")
+    @Query("SELECT r FROM Recipes r WHERE r.id = :id")
+    Optional<Recipes> findWithStepsById(Long id);
+}
@@ -0,0 +1,48 @@
+package com.ninehub.authentication.repository;
+
+import com.ninehub.authentication.dto.RevokedTokenDto;
+import com.ninehub.authentication.dto.TokenSession;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Storage of login sessions used by {@link com.ninehub.authentication.service.JwtService}.
+ * Selected with the {@code token.store} property: {@code jpa} (default) or {@code memory}.
+ */
+public interface TokenStore {
+
+    void save(TokenSession session);
+
+    /**
+     * Revoke every active session of the user of {@code session} and save it, as one atomic step:
+     * concurrent logins or refreshes of the same user leave a single active session,
+     * and a failure never leaves the user with all sessions revoked and none saved
+     * @return the access tokens revoked by this call
+     */
+    List<RevokedTokenDto> replaceSessions(TokenSession session);
+
+    Optional<TokenSession> findByAccessHash(byte[] accessHash);
+
+    Optional<TokenSession> findByRefreshHash(byte[] refreshHash);
+
+    /**
+     * Revoke every active session of the given users
+     * @return the access tokens revoked by this call, and only those
+     */
+    List<RevokedTokenDto> revokeAllForUsers(Collection<Long> userIds);
+
+    /**
+     * Visit every revoked session whose access token has not expired yet
+     */
+    void forEachRevokedToken(Instant now, Consumer<RevokedTokenDto> consumer);
+
+    /**
+     * Delete at most {@code limit} sessions which are {@linkplain TokenSession#isPurgeable purgeable}
+     * @return the number of sessions deleted, 0 when nothing is left to purge
+     */
+    int purgeExpired(Instant now, int limit);
+}
@@ -1,10 +1,50 @@
 package com.ninehub.authentication.repository;
 
+import com.ninehub.authentication.dto.UserEmailDto;
+import com.ninehub.authentication.dto.UserSummaryDto;
 import com.ninehub.authentication.entity.User;
+import com.ninehub.authentication.entity.enums.RoleType;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    boolean existsByEmail(String email);
+
+    /**
+     * Keyset page of emails, used to read the whole table in bounded chunks
+     */
+    @Query("SELECT new com.ninehub.authentication.dto.UserEmailDto(u.id, u.email) FROM User u " +
+            "WHERE u.id > :afterId ORDER BY u.id")
+    List<UserEmailDto> findEmailsAfter(Long afterId, Pageable pageable);
+
+    /**
+     * Keyset page of the admin listing, optionally filtered on the active flag and the role
+     */
+    @Query("SELECT new com.ninehub.authentication.dto.UserSummaryDto(u.id, u.firstName, u.email, u.isActif, r.roleType) " +
+            "FROM User u LEFT JOIN u.role r WHERE u.id > :afterId " +
+            "AND (:active IS NULL OR u.isActif = :active) AND (:roleType IS NULL OR r.roleType = :roleType) " +
+            "ORDER BY u.id")
+    List<UserSummaryDto> findSummariesAfter(Long afterId, Boolean active, RoleType roleType, Pageable pageable);
+
+    /**
+     * Those of the given emails which are already registered, checked in one query
+     */
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(Collection<String> emails);
+
+    /**
+     * Lock the rows of the given users until the end of the transaction, in id order so two callers cannot deadlock
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids ORDER BY u.id")
+    List<Long> lockAllByIds(Collection<Long> ids);
 }
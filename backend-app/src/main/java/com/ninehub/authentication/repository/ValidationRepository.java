@@ -1,12 +1,50 @@
 package com.ninehub.authentication.repository;
 
+import com.ninehub.authentication.dto.VerificationCodeDto;
 import com.ninehub.authentication.entity.Validation;
+import com.ninehub.authentication.entity.enums.CodePurpose;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ValidationRepository extends JpaRepository<Validation, Long> {
-    Optional<Validation> findByCode(String code);
-    void deleteAllByExpiredAtBefore(Instant now);
+
+    @Query("SELECT new com.ninehub.authentication.dto.VerificationCodeDto(v.id, u.id, v.purpose, v.code, v.expiredAt, v.failedAttempts) " +
+            "FROM Validation v JOIN v.user u WHERE u.email = :email AND v.purpose = :purpose " +
+            "ORDER BY v.id DESC LIMIT 1")
+    Optional<VerificationCodeDto> findCode(String email, CodePurpose purpose);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Validation v SET v.failedAttempts = v.failedAttempts + 1 WHERE v.id = :id")
+    int recordFailedAttempt(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Validation v WHERE v.id = :id AND v.failedAttempts >= :maxAttempts")
+    int deleteIfAttemptsReached(Long id, int maxAttempts);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Validation v WHERE v.id = :id")
+    int deleteCode(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Validation v WHERE v.user.id = :userId AND v.purpose = :purpose")
+    int deleteByUserAndPurpose(Long userId, CodePurpose purpose);
+
+    @Query("SELECT v.id FROM Validation v WHERE v.expiredAt < :now ORDER BY v.id")
+    List<Long> findExpiredIds(Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Validation v WHERE v.id IN :ids")
+    int deleteAllByIds(Collection<Long> ids);
 }
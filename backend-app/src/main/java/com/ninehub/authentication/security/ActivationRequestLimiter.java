@@ -0,0 +1,42 @@
+package com.ninehub.authentication.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Limits the activation codes sent on request, per email and per client address, so the endpoint cannot be
+ * used to flood a mailbox. Every request counts, whether the account exists or not.
+ * Reuses the counter table of {@link LoginAttemptLimiter} with its own settings and counters.
+ */
+@Component
+public class ActivationRequestLimiter {
+
+    private final LoginAttemptLimiter requests;
+
+    public ActivationRequestLimiter(@Value("${security.activation-request.slots:16384}") int slotCount,
+                                    @Value("${security.activation-request.max-per-email:3}") int maxPerEmail,
+                                    @Value("${security.activation-request.max-per-address:10}") int maxPerAddress,
+                                    @Value("${security.activation-request.window:PT1H}") Duration window,
+                                    @Value("${security.activation-request.base-lockout:PT15M}") Duration baseLockout,
+                                    @Value("${security.activation-request.max-lockout:PT24H}") Duration maxLockout) {
+        this.requests = new LoginAttemptLimiter(slotCount, maxPerEmail, maxPerAddress, window, baseLockout, maxLockout);
+    }
+
+    /**
+     * Count a request
+     * @return false when the email or the address has asked too often, the request must then be refused
+     */
+    public boolean tryAcquire(String email, String address) {
+        try {
+            requests.checkAllowed(email, address);
+        } catch (LockedException e) {
+            return false;
+        }
+        // Chaque demande compte comme un echec de login: le verrou tombe apres max-per-email demandes
+        requests.recordFailure(email, address);
+        return true;
+    }
+}
@@ -1,12 +1,13 @@
 package com.ninehub.authentication.security;
 
-import com.ninehub.authentication.service.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -14,61 +15,74 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
 public class JwtFilter extends OncePerRequestFilter {
 
-    private final JwtService jwtService;
+    private final JwtVerifier jwtVerifier;
+    private final TokenRevocationIndex revocationIndex;
     private final UserDetailsService userDetailsService;
 
-    public JwtFilter(JwtService jwtService, UserDetailsService userDetailsService) {
-        this.jwtService = jwtService;
+    // When enabled the principal is rebuilt from the token claims instead of being loaded from the database
+    private final boolean statelessPrincipal;
+
+    // Temps passe dans ce filtre seulement, hors reste de la chaine, selon l'issue
+    private final Timer anonymousTimer;
+    private final Timer authenticatedTimer;
+    private final Timer rejectedTimer;
+
+    public JwtFilter(JwtVerifier jwtVerifier,
+                     TokenRevocationIndex revocationIndex,
+                     UserDetailsService userDetailsService,
+                     @Value("${jwt.stateless-principal:false}") boolean statelessPrincipal,
+                     MeterRegistry meterRegistry) {
+        this.jwtVerifier = jwtVerifier;
+        this.revocationIndex = revocationIndex;
         this.userDetailsService = userDetailsService;
+        this.statelessPrincipal = statelessPrincipal;
+        this.anonymousTimer = meterRegistry.timer("auth.filter", "outcome", "anonymous");
+        this.authenticatedTimer = meterRegistry.timer("auth.filter", "outcome", "authenticated");
+        this.rejectedTimer = meterRegistry.timer("auth.filter", "outcome", "rejected");
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-
-        String token = null;
-        String username = null;
-        boolean isTokenExpired = true;
-
+        long start = System.nanoTime();
+        Timer timer = anonymousTimer;
         final String authorization = request.getHeader("Authorization");
 
-        if (authorization != null && authorization.startsWith("Bearer ")) {
-            token = authorization.substring(7);
+        if (authorization != null && authorization.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // One parse per request: signature and expiry are checked together, invalid tokens are just skipped
+            Optional<VerifiedJwt> verified = jwtVerifier.verify(authorization.substring(7))
+                    .filter(jwt -> !revocationIndex.isRevoked(jwt.tokenId()));
 
-            try {
-                // Try to parse token
-                isTokenExpired = jwtService.isTokenExpired(token);
-                username = jwtService.extractUsername(token);
-            } catch (io.jsonwebtoken.MalformedJwtException e) {
-                // Handle fake/invalid tokens - just skip authentication
-                log.warn("⚠️ Invalid JWT token format: {}", e.getMessage());
-                filterChain.doFilter(request, response);
-                return;
-            } catch (Exception e) {
-                // Handle any other JWT errors
-                log.error("❌ Error processing JWT: {}", e.getMessage());
-                filterChain.doFilter(request, response);
-                return;
+            if (verified.isPresent() && verified.get().subject() != null) {
+                UserDetails userDetails = loadPrincipal(verified.get());
+                // Les autorites du role sont partagees, pas de copie par requete
+                SecurityContextHolder.getContext().setAuthentication(RoleAuthentication.of(userDetails));
+                timer = authenticatedTimer;
+            } else {
+                timer = rejectedTimer;
             }
         }
-
-        // If token is valid and not expired, authenticate user
-        if (!isTokenExpired && username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                    userDetails,
-                    null,
-                    userDetails.getAuthorities()
-            );
-            SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-        }
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
         filterChain.doFilter(request, response);
     }
+
+    private UserDetails loadPrincipal(VerifiedJwt jwt) {
+        if (statelessPrincipal) {
+            Optional<TokenPrincipal> principal = TokenPrincipal.from(jwt);
+            if (principal.isPresent()) {
+                return principal.get();
+            }
+        }
+        return userDetailsService.loadUserByUsername(jwt.subject());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,273 @@
+package com.ninehub.authentication.security;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.RsaPublicJwk;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Ring of the RSA keys signing the access tokens, each identified by its {@code kid}.
+ * <p>
+ * The keys come from a keystore shared by every instance (jwt.keys.keystore), so a token signed by one
+ * instance is verified by all of them, also after a restart. The kid is the RFC 7638 thumbprint of the
+ * public key and the signing key only depends on the keystore and the time, so every instance agrees on both.
+ * <p>
+ * A key signs once the activation delay has elapsed since the start of validity of its certificate:
+ * a key added to the keystore is published in the JWKS for that delay before it signs anything.
+ * A superseded key is still published until the tokens it signed have expired.
+ * The keystore is read again every jwt.keys.reload-interval; keys are rotated by adding one to it.
+ * <p>
+ * Everything read on the request path lives in one immutable {@link State} swapped at reload:
+ * finding the verification key of a token is a single map read, without locking.
+ */
+@Slf4j
+@Component
+public class JwtKeyRing extends LocatorAdapter<Key> implements MeterBinder {
+
+    private final Duration tokenLifetime;
+    private final Duration activationDelay;
+    private final Duration jwksMaxAge;
+    private final Supplier<List<KeyMaterial>> keySource;
+
+    // Cle HMAC des jetons emis avant le passage aux cles RSA, acceptee seulement sans kid
+    private final Key legacyKey;
+
+    private volatile State state;
+
+    @Autowired
+    public JwtKeyRing(@Value("${jwt.expiration}") long jwtExpiration,
+                      @Value("${jwt.keys.keystore:}") String keystore,
+                      @Value("${jwt.keys.keystore-password:}") String keystorePassword,
+                      @Value("${jwt.keys.activation-delay:PT2H}") Duration activationDelay,
+                      @Value("${jwt.keys.jwks-max-age:PT1H}") Duration jwksMaxAge,
+                      @Value("${jwt.secret:}") String legacySecret) {
+        this(jwtExpiration, activationDelay, jwksMaxAge, legacySecret, keystoreSource(keystore, keystorePassword));
+    }
+
+    /**
+     * Ring reading its keys from the given source, at construction and at each reload
+     */
+    public JwtKeyRing(long jwtExpiration, Duration activationDelay, Duration jwksMaxAge, String legacySecret,
+                      Supplier<List<KeyMaterial>> keySource) {
+        if (jwksMaxAge.compareTo(activationDelay) >= 0) {
+            throw new IllegalStateException("jwt.keys.jwks-max-age must be shorter than jwt.keys.activation-delay, "
+                    + "otherwise verifiers may not know the key of a fresh token");
+        }
+        this.tokenLifetime = Duration.ofMillis(jwtExpiration);
+        this.activationDelay = activationDelay;
+        this.jwksMaxAge = jwksMaxAge;
+        this.keySource = keySource;
+        this.legacyKey = legacySecret.isBlank() ? null : Keys.hmacShaKeyFor(Decoders.BASE64.decode(legacySecret));
+        this.state = build(keySource.get(), Instant.now());
+        log.info("Signing key {}, {} keys published", state.current().kid(), size());
+    }
+
+    /**
+     * Key signing the tokens issued now
+     */
+    public SigningKey current() {
+        return state.current();
+    }
+
+    /**
+     * JWKS document listing the public keys of the ring, with its ETag
+     */
+    public PublishedJwks jwks() {
+        return state.jwks();
+    }
+
+    public Duration jwksMaxAge() {
+        return jwksMaxAge;
+    }
+
+    /**
+     * Verification key of a signed token, by its kid.
+     * Returns null for an unknown kid, which the parser reports as an invalid token.
+     */
+    @Override
+    protected Key locate(JwsHeader header) {
+        String kid = header.getKeyId();
+        if (kid != null) {
+            return state.verificationKeys().get(kid);
+        }
+        String algorithm = header.getAlgorithm();
+        return algorithm != null && algorithm.startsWith("HS") ? legacyKey : null;
+    }
+
+    /**
+     * Read the keys again and pick the signing key for now.
+     * If the keystore cannot be read the ring keeps the keys it has.
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys.reload-interval:PT1M}", initialDelayString = "${jwt.keys.reload-interval:PT1M}")
+    public synchronized void reload() {
+        State previous = state;
+        try {
+            state = build(keySource.get(), Instant.now());
+        } catch (RuntimeException e) {
+            log.error("Could not reload the signing keys, keeping the {} current ones: {}", size(), e.getMessage());
+            return;
+        }
+        if (!previous.current().kid().equals(state.current().kid())) {
+            log.info("Signing key changed to {}, {} keys published", state.current().kid(), size());
+        }
+    }
+
+    public int size() {
+        return state.verificationKeys().size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.jwt.keys", this, JwtKeyRing::size)
+                .description("Public keys published in the JWKS")
+                .register(registry);
+    }
+
+    /**
+     * Signing key and published keys at the given time.
+     * Ordered by start of validity, the signing key is the last one activated (the first one if none is yet,
+     * for a new keystore); the later ones are published in advance, the earlier ones until their tokens expire.
+     */
+    private State build(List<KeyMaterial> materials, Instant now) {
+        if (materials.isEmpty()) {
+            throw new IllegalStateException("No RSA key to sign the tokens with");
+        }
+        // Une meme cle presente sous deux alias n'est publiee qu'une fois
+        List<SigningKey> keys = new ArrayList<>(materials.stream()
+                .map(SigningKey::of)
+                .collect(Collectors.toMap(SigningKey::kid, key -> key, (first, second) -> first))
+                .values());
+        keys.sort(Comparator.comparing(SigningKey::notBefore).thenComparing(SigningKey::kid));
+
+        int current = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            if (!keys.get(i).notBefore().plus(activationDelay).isAfter(now)) {
+                current = i;
+            }
+        }
+
+        List<SigningKey> published = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            // Une cle remplacee reste publiee jusqu'a l'expiration des jetons qu'elle a signes
+            boolean superseded = i < current
+                    && !keys.get(i + 1).notBefore().plus(activationDelay).plus(tokenLifetime).isAfter(now);
+            if (!superseded) {
+                published.add(keys.get(i));
+            }
+        }
+        return State.of(keys.get(current), published);
+    }
+
+    private static Supplier<List<KeyMaterial>> keystoreSource(String location, String password) {
+        if (location.isBlank()) {
+            throw new IllegalStateException("jwt.keys.keystore is required: the signing keys must be shared by all "
+                    + "the instances and survive a restart, see application.properties.template");
+        }
+        Resource resource = new DefaultResourceLoader().getResource(location);
+        char[] secret = password.toCharArray();
+        return () -> readKeystore(resource, secret);
+    }
+
+    /**
+     * Every RSA key entry of the keystore, with the start of validity of its certificate
+     */
+    private static List<KeyMaterial> readKeystore(Resource resource, char[] password) {
+        try (InputStream in = resource.getInputStream()) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, password);
+            List<KeyMaterial> materials = new ArrayList<>();
+            for (String alias : Collections.list(keyStore.aliases())) {
+                Key key = keyStore.isKeyEntry(alias) ? keyStore.getKey(alias, password) : null;
+                Certificate certificate = keyStore.getCertificate(alias);
+                if (key instanceof RSAPrivateKey privateKey && certificate instanceof X509Certificate x509
+                        && x509.getPublicKey() instanceof RSAPublicKey publicKey) {
+                    materials.add(new KeyMaterial(new KeyPair(publicKey, privateKey), x509.getNotBefore().toInstant()));
+                } else {
+                    log.warn("Ignoring keystore entry {}: not an RSA key with its certificate", alias);
+                }
+            }
+            return materials;
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Could not read the keystore " + resource.getDescription(), e);
+        }
+    }
+
+    /**
+     * Key pair from the key source and the time from which it may be used
+     */
+    public record KeyMaterial(KeyPair keyPair, Instant notBefore) {
+    }
+
+    /**
+     * A key of the ring; the kid is the RFC 7638 thumbprint of the public key
+     */
+    public record SigningKey(String kid, PrivateKey privateKey, RsaPublicJwk publicJwk, Instant notBefore) {
+
+        static SigningKey of(KeyMaterial material) {
+            RsaPublicJwk jwk = Jwks.builder()
+                    .key((RSAPublicKey) material.keyPair().getPublic())
+                    .idFromThumbprint()
+                    .publicKeyUse("sig")
+                    .algorithm(Jwts.SIG.RS256.getId())
+                    .build();
+            return new SigningKey(jwk.getId(), material.keyPair().getPrivate(), jwk, material.notBefore());
+        }
+    }
+
+    /**
+     * JWKS JSON and its strong ETag, computed once per reload
+     */
+    public record PublishedJwks(String json, String etag) {
+    }
+
+    private record State(SigningKey current, Map<String, Key> verificationKeys, PublishedJwks jwks) {
+
+        static State of(SigningKey current, List<SigningKey> published) {
+            Map<String, Key> verificationKeys = new HashMap<>();
+            published.forEach(key -> verificationKeys.put(key.kid(), key.publicJwk().toKey()));
+
+            String json = published.stream()
+                    .map(key -> Jwks.json(key.publicJwk()))
+                    .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+            String etag = "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(TokenDigest.sha256(json)) + "\"";
+
+            return new State(current, Map.copyOf(verificationKeys), new PublishedJwks(json, etag));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.ninehub.authentication.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Verification path used by {@link JwtFilter} on every request.
+ * The parser is built once and picks the verification key by the kid of the token from the {@link JwtKeyRing},
+ * and a token is parsed a single time.
+ * This class is deliberately not transactional: it never touches the database.
+ */
+@Slf4j
+@Component
+public class JwtVerifier {
+
+    // Un jeton bien plus long que ceux que l'on emet n'est pas le notre
+    private static final int MAX_TOKEN_LENGTH = 4096;
+
+    private final JwtParser parser;
+
+    public JwtVerifier(JwtKeyRing keyRing) {
+        this.parser = Jwts.parser()
+                .keyLocator(keyRing)
+                .build();
+    }
+
+    /**
+     * Verify the signature and expiry of a compact token.
+     * Returns an empty result for malformed, badly signed or expired tokens.
+     */
+    public Optional<VerifiedJwt> verify(String token) {
+        if (!hasCompactShape(token)) {
+            log.warn("⚠️ Invalid JWT token format");
+            return Optional.empty();
+        }
+
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            return Optional.of(VerifiedJwt.from(claims, token.substring(token.lastIndexOf('.') + 1)));
+        } catch (ExpiredJwtException e) {
+            log.debug("JWT expired: {}", e.getMessage());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.warn("⚠️ Invalid JWT token: {}", e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Cheap structural check run before any decoding or signature work:
+     * three non empty base64url segments separated by two dots.
+     */
+    static boolean hasCompactShape(String token) {
+        if (token == null || token.isEmpty() || token.length() > MAX_TOKEN_LENGTH) {
+            return false;
+        }
+
+        int dots = 0;
+        int segmentLength = 0;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (segmentLength == 0 || ++dots > 2) {
+                    return false;
+                }
+                segmentLength = 0;
+            } else if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_') {
+                segmentLength++;
+            } else {
+                return false;
+            }
+        }
+        return dots == 2 && segmentLength > 0;
+    }
+}
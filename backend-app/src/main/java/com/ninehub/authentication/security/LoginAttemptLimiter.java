@@ -0,0 +1,220 @@
+package com.ninehub.authentication.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts failed logins per account and per client address, and locks them out progressively:
+ * each lockout of the same key lasts twice as long as the previous one, up to a maximum.
+ * Runs before authentication so a locked key costs neither a user query nor a BCrypt check.
+ * <p>
+ * Counters live in a fixed-size table updated with compare-and-set, so memory is bounded whatever
+ * the number of emails or addresses tried, and entries simply expire once their window is over.
+ */
+@Slf4j
+@Component
+public class LoginAttemptLimiter implements MeterBinder {
+
+    // Nombre de cases voisines examinees avant d'ecraser la plus ancienne
+    private static final int PROBES = 4;
+
+    private final AtomicReferenceArray<Slot> slots;
+    private final int mask;
+    private final long seed = new SecureRandom().nextLong();
+
+    private final int maxAttemptsPerAccount;
+    private final int maxAttemptsPerAddress;
+    private final long windowMillis;
+    private final long baseLockoutMillis;
+    private final long maxLockoutMillis;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder lockouts = new LongAdder();
+
+    public LoginAttemptLimiter(@Value("${security.login.slots:65536}") int slotCount,
+                               @Value("${security.login.max-attempts-per-account:5}") int maxAttemptsPerAccount,
+                               @Value("${security.login.max-attempts-per-address:20}") int maxAttemptsPerAddress,
+                               @Value("${security.login.window:PT15M}") Duration window,
+                               @Value("${security.login.base-lockout:PT1M}") Duration baseLockout,
+                               @Value("${security.login.max-lockout:PT1H}") Duration maxLockout) {
+        int size = Integer.highestOneBit(Math.max(PROBES, slotCount - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.maxAttemptsPerAccount = maxAttemptsPerAccount;
+        this.maxAttemptsPerAddress = maxAttemptsPerAddress;
+        this.windowMillis = window.toMillis();
+        this.baseLockoutMillis = baseLockout.toMillis();
+        this.maxLockoutMillis = maxLockout.toMillis();
+    }
+
+    /**
+     * Throws a {@link LockedException} when the account or the address is locked out
+     */
+    public void checkAllowed(String email, String address) {
+        long now = System.currentTimeMillis();
+        long lockedUntil = Math.max(lockedUntil(accountKey(email), now), lockedUntil(addressKey(address), now));
+        if (lockedUntil > now) {
+            rejected.increment();
+            throw new LockedException("Too many failed login attempts, retry in " + Duration.ofMillis(lockedUntil - now).toSeconds() + " seconds");
+        }
+    }
+
+    public void recordFailure(String email, String address) {
+        long now = System.currentTimeMillis();
+        recordFailure(accountKey(email), maxAttemptsPerAccount, now);
+        recordFailure(addressKey(address), maxAttemptsPerAddress, now);
+    }
+
+    /**
+     * A successful login clears the account counters; the address keeps its own
+     */
+    public void recordSuccess(String email) {
+        long key = accountKey(email);
+        int index = find(key);
+        if (index >= 0) {
+            Slot slot = slots.get(index);
+            if (slot != null && slot.key() == key) {
+                slots.compareAndSet(index, slot, null);
+            }
+        }
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    public long lockoutCount() {
+        return lockouts.sum();
+    }
+
+    private long lockedUntil(long key, long now) {
+        int index = find(key);
+        if (index < 0) {
+            return 0;
+        }
+        Slot slot = slots.get(index);
+        return slot != null && slot.key() == key ? slot.lockedUntil() : 0;
+    }
+
+    private void recordFailure(long key, int maxAttempts, long now) {
+        while (true) {
+            int index = findOrClaim(key, now);
+            Slot current = slots.get(index);
+            Slot base = current != null && current.key() == key && !current.isExpired(now, windowMillis) ? current : null;
+            Slot updated = nextAfterFailure(key, base, maxAttempts, now);
+            if (slots.compareAndSet(index, current, updated)) {
+                if (updated.lockedUntil() > now && (base == null || base.lockedUntil() <= now)) {
+                    lockouts.increment();
+                    log.warn("Login locked out for {} ms after {} failed attempts", updated.lockedUntil() - now, maxAttempts);
+                }
+                return;
+            }
+        }
+    }
+
+    private Slot nextAfterFailure(long key, Slot slot, int maxAttempts, long now) {
+        if (slot == null) {
+            return maxAttempts <= 1 ? lock(key, 0, now) : new Slot(key, 1, 0, 0, now);
+        }
+        if (slot.lockedUntil() > now) {
+            // Deja verrouille: on ne prolonge pas, les tentatives sont rejetees avant l'authentification
+            return slot;
+        }
+        int failures = slot.failures() + 1;
+        if (failures >= maxAttempts) {
+            return lock(key, slot.lockouts(), now);
+        }
+        return new Slot(key, failures, slot.lockouts(), slot.lockedUntil(), now);
+    }
+
+    private Slot lock(long key, int previousLockouts, long now) {
+        long duration = Math.min(maxLockoutMillis, baseLockoutMillis << Math.min(previousLockouts, 20));
+        return new Slot(key, 0, previousLockouts + 1, now + duration, now);
+    }
+
+    /**
+     * Index of the slot holding this key, or -1
+     */
+    private int find(long key) {
+        int start = (int) key & mask;
+        for (int i = 0; i < PROBES; i++) {
+            int index = (start + i) & mask;
+            Slot slot = slots.get(index);
+            if (slot != null && slot.key() == key) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Index of the slot holding this key, else of a free or expired slot, else of the least recently used one
+     */
+    private int findOrClaim(long key, long now) {
+        int start = (int) key & mask;
+        int candidate = -1;
+        long oldest = Long.MAX_VALUE;
+        for (int i = 0; i < PROBES; i++) {
+            int index = (start + i) & mask;
+            Slot slot = slots.get(index);
+            if (slot != null && slot.key() == key) {
+                return index;
+            }
+            long lastFailure = slot == null || slot.isExpired(now, windowMillis) ? 0 : slot.lastFailure();
+            if (lastFailure < oldest) {
+                oldest = lastFailure;
+                candidate = index;
+            }
+        }
+        return candidate;
+    }
+
+    private long accountKey(String email) {
+        return hash('a', email == null ? "" : email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private long addressKey(String address) {
+        return hash('i', address == null ? "" : address);
+    }
+
+    /**
+     * 64-bit FNV-1a seeded at startup, so keys colliding on purpose cannot be precomputed
+     */
+    private long hash(char kind, String value) {
+        long h = 0xcbf29ce484222325L ^ seed;
+        h = (h ^ kind) * 0x100000001b3L;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return h ^ (h >>> 32);
+    }
+
+    private record Slot(long key, int failures, int lockouts, long lockedUntil, long lastFailure) {
+
+        /**
+         * No failure and no lockout within the last window: the key starts over
+         */
+        boolean isExpired(long now, long windowMillis) {
+            return now - Math.max(lastFailure, lockedUntil) > windowMillis;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.login.rejected", this, LoginAttemptLimiter::rejectedCount)
+                .description("Login attempts refused because the account or address is locked out")
+                .register(registry);
+        FunctionCounter.builder("auth.login.lockouts", this, LoginAttemptLimiter::lockoutCount).register(registry);
+    }
+}
@@ -0,0 +1,138 @@
+package com.ninehub.authentication.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the hashing work of a {@link PasswordEncoder} on a dedicated pool sized to the CPU count.
+ * Requests wait in a bounded queue; when it is full the call fails at once with a
+ * {@link RejectedExecutionException} (answered with 503) instead of piling up on the Tomcat threads,
+ * so a burst of logins cannot starve the other endpoints.
+ */
+@Slf4j
+public class OffloadingPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer waitTime;
+    private final Timer computeTime;
+    private final LongAdder rejected = new LongAdder();
+
+    public OffloadingPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.waitTime = Timer.builder("auth.bcrypt.wait")
+                .description("Time spent in the queue before a hasher thread picked the task up")
+                .register(registry);
+        this.computeTime = Timer.builder("auth.bcrypt.compute")
+                .description("Time spent hashing or checking a password")
+                .register(registry);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException("Password hashing queue is full, please try again later");
+                });
+        this.executor.prestartAllCoreThreads();
+
+        Gauge.builder("auth.bcrypt.queue", this, OffloadingPasswordEncoder::queueDepth).register(registry);
+        Gauge.builder("auth.bcrypt.active", this, OffloadingPasswordEncoder::activeCount).register(registry);
+        FunctionCounter.builder("auth.bcrypt.rejected", this, OffloadingPasswordEncoder::rejectedCount).register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Only reads the cost factor of the hash, no need to go through the pool
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int activeCount() {
+        return executor.getActiveCount();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Time spent in the queue before a hasher thread picked the task up
+     */
+    public Timer waitTime() {
+        return waitTime;
+    }
+
+    /**
+     * Time spent hashing
+     */
+    public Timer computeTime() {
+        return computeTime;
+    }
+
+    private <T> T submit(Callable<T> task) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future = executor.submit(() -> {
+            long start = System.nanoTime();
+            waitTime.record(start - enqueuedAt, TimeUnit.NANOSECONDS);
+            try {
+                return task.call();
+            } finally {
+                computeTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        });
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.ninehub.authentication.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an endpoint whose code needs the {@link com.ninehub.authentication.entity.User} entity as principal.
+ * When the filter authenticated the request from the token claims only, the user is loaded from the
+ * database before the handler runs.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface RequiresUserEntity {
+}
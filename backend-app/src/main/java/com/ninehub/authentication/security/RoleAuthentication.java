@@ -0,0 +1,111 @@
+package com.ninehub.authentication.security;
+
+import com.ninehub.authentication.entity.User;
+import com.ninehub.authentication.entity.enums.RoleType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Authentication of a request carrying a bearer token.
+ * Unlike {@link org.springframework.security.authentication.UsernamePasswordAuthenticationToken}, which copies
+ * the authorities into a new list, it hands out the list shared by the role, and keeps the role so that
+ * {@link RoleSecurityExpressionRoot} can check an authority with a mask test.
+ * Like the Spring tokens it can be marked as not authenticated, never the other way round.
+ */
+public final class RoleAuthentication implements Authentication {
+
+    private final UserDetails principal;
+    private final RoleType roleType;
+    private volatile boolean authenticated = true;
+
+    public RoleAuthentication(UserDetails principal, RoleType roleType) {
+        this.principal = Objects.requireNonNull(principal, "principal");
+        this.roleType = Objects.requireNonNull(roleType, "roleType");
+    }
+
+    /**
+     * Authentication for a principal loaded from a token, falling back to a
+     * {@link UsernamePasswordAuthenticationToken} for principals without a known role
+     */
+    public static Authentication of(UserDetails principal) {
+        if (principal instanceof TokenPrincipal tokenPrincipal) {
+            return new RoleAuthentication(tokenPrincipal, tokenPrincipal.roleType());
+        }
+        if (principal instanceof User user && user.getRole() != null && user.getRole().getRoleType() != null) {
+            return new RoleAuthentication(user, user.getRole().getRoleType());
+        }
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    public UserDetails principal() {
+        return principal;
+    }
+
+    public RoleType roleType() {
+        return roleType;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return roleType.getAuthorities();
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getDetails() {
+        return null;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return authenticated;
+    }
+
+    @Override
+    public void setAuthenticated(boolean isAuthenticated) {
+        if (isAuthenticated) {
+            throw new IllegalArgumentException("A token authentication cannot be marked as authenticated, create a new one");
+        }
+        this.authenticated = false;
+    }
+
+    @Override
+    public String getName() {
+        return principal.getUsername();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof RoleAuthentication other
+                && principal.equals(other.principal)
+                && roleType == other.roleType
+                && authenticated == other.authenticated;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(principal, roleType, authenticated);
+    }
+
+    /**
+     * Name and role only: the principal may be the {@link User} entity, which must not end up in the logs
+     */
+    @Override
+    public String toString() {
+        return "RoleAuthentication[name=" + getName() + ", role=" + roleType + ", authenticated=" + authenticated + "]";
+    }
+}
@@ -0,0 +1,42 @@
+package com.ninehub.authentication.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.security.access.expression.SecurityExpressionRoot;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/**
+ * Evaluates {@code @PreAuthorize} expressions against a {@link RoleSecurityExpressionRoot},
+ * so {@code hasAuthority('ROLE_ADMIN')} is a mask test for the callers authenticated with a role
+ */
+public class RoleMethodSecurityExpressionHandler extends DefaultMethodSecurityExpressionHandler {
+
+    @Override
+    public EvaluationContext createEvaluationContext(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        StandardEvaluationContext context = (StandardEvaluationContext) super.createEvaluationContext(authentication, invocation);
+        context.setRootObject(createRoot(authentication, invocation));
+        return context;
+    }
+
+    @Override
+    protected MethodSecurityExpressionOperations createSecurityExpressionRoot(Authentication authentication,
+                                                                              MethodInvocation invocation) {
+        return createRoot(() -> authentication, invocation);
+    }
+
+    private RoleSecurityExpressionRoot createRoot(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        RoleSecurityExpressionRoot root = new RoleSecurityExpressionRoot(authentication);
+        root.setThis(invocation.getThis());
+        SecurityExpressionRoot delegate = root.delegate();
+        delegate.setPermissionEvaluator(getPermissionEvaluator());
+        delegate.setTrustResolver(getTrustResolver());
+        delegate.setRoleHierarchy(getRoleHierarchy());
+        delegate.setDefaultRolePrefix(getDefaultRolePrefix());
+        return root;
+    }
+}
@@ -0,0 +1,156 @@
+package com.ninehub.authentication.security;
+
+import com.ninehub.authentication.entity.User;
+import com.ninehub.authentication.entity.enums.RoleType;
+import org.springframework.security.access.expression.SecurityExpressionRoot;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/**
+ * Root of the {@code @PreAuthorize} expressions resolving {@code hasAuthority} and {@code hasAnyAuthority}
+ * with one test against the bit mask of the caller's role, instead of building and searching the set of
+ * authority strings on every call. The other operations are those of the standard root.
+ * Spring declares {@code hasAuthority} final in {@link SecurityExpressionRoot}, hence the delegation.
+ */
+public class RoleSecurityExpressionRoot implements MethodSecurityExpressionOperations {
+
+    private final SecurityExpressionRoot delegate;
+    private Object filterObject;
+    private Object returnObject;
+    private Object target;
+
+    public RoleSecurityExpressionRoot(Supplier<Authentication> authentication) {
+        this.delegate = new SecurityExpressionRoot(authentication) {
+        };
+    }
+
+    /**
+     * Standard root answering the operations which are not resolved with the mask, to be configured by the handler
+     */
+    SecurityExpressionRoot delegate() {
+        return delegate;
+    }
+
+    @Override
+    public boolean hasAuthority(String authority) {
+        RoleType roleType = roleOf(getAuthentication());
+        return roleType != null ? roleType.hasAuthority(authority) : delegate.hasAuthority(authority);
+    }
+
+    @Override
+    public boolean hasAnyAuthority(String... authorities) {
+        RoleType roleType = roleOf(getAuthentication());
+        if (roleType == null) {
+            // Autre type d'authentification (formulaire, tests): recherche dans la liste
+            return delegate.hasAnyAuthority(authorities);
+        }
+        long mask = 0L;
+        for (String authority : authorities) {
+            mask |= RoleType.bitOf(authority);
+        }
+        return (roleType.getAuthorityMask() & mask) != 0;
+    }
+
+    @Override
+    public Authentication getAuthentication() {
+        return delegate.getAuthentication();
+    }
+
+    @Override
+    public boolean hasRole(String role) {
+        return delegate.hasRole(role);
+    }
+
+    @Override
+    public boolean hasAnyRole(String... roles) {
+        return delegate.hasAnyRole(roles);
+    }
+
+    @Override
+    public boolean permitAll() {
+        return delegate.permitAll();
+    }
+
+    @Override
+    public boolean denyAll() {
+        return delegate.denyAll();
+    }
+
+    @Override
+    public boolean isAnonymous() {
+        return delegate.isAnonymous();
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return delegate.isAuthenticated();
+    }
+
+    @Override
+    public boolean isRememberMe() {
+        return delegate.isRememberMe();
+    }
+
+    @Override
+    public boolean isFullyAuthenticated() {
+        return delegate.isFullyAuthenticated();
+    }
+
+    @Override
+    public boolean hasPermission(Object target, Object permission) {
+        return delegate.hasPermission(target, permission);
+    }
+
+    @Override
+    public boolean hasPermission(Object targetId, String targetType, Object permission) {
+        return delegate.hasPermission(targetId, targetType, permission);
+    }
+
+    @Override
+    public void setFilterObject(Object filterObject) {
+        this.filterObject = filterObject;
+    }
+
+    @Override
+    public Object getFilterObject() {
+        return filterObject;
+    }
+
+    @Override
+    public void setReturnObject(Object returnObject) {
+        this.returnObject = returnObject;
+    }
+
+    @Override
+    public Object getReturnObject() {
+        return returnObject;
+    }
+
+    void setThis(Object target) {
+        this.target = target;
+    }
+
+    @Override
+    public Object getThis() {
+        return target;
+    }
+
+    private static RoleType roleOf(Authentication authentication) {
+        if (authentication == null) {
+            return null;
+        }
+        if (authentication instanceof RoleAuthentication roleAuthentication) {
+            return roleAuthentication.roleType();
+        }
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof TokenPrincipal tokenPrincipal) {
+            return tokenPrincipal.roleType();
+        }
+        if (principal instanceof User user && user.getRole() != null) {
+            return user.getRole().getRoleType();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ninehub.authentication.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Fixed length digest under which tokens are stored and looked up
+ */
+public final class TokenDigest {
+
+    private TokenDigest() {
+    }
+
+    public static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 fait partie des algorithmes obligatoires de toute JVM
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ninehub.authentication.security;
+
+import com.ninehub.authentication.entity.enums.RoleType;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Lightweight principal rebuilt from the claims of a verified token, without loading the user.
+ * Endpoints which need the {@link com.ninehub.authentication.entity.User} entity are annotated
+ * with {@link RequiresUserEntity}.
+ */
+public record TokenPrincipal(String email, String firstName, RoleType roleType) implements UserDetails {
+
+    /**
+     * Build the principal from the token claims, empty if the claims are incomplete or the role is unknown
+     */
+    public static Optional<TokenPrincipal> from(VerifiedJwt jwt) {
+        if (jwt.subject() == null || jwt.role() == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new TokenPrincipal(jwt.subject(), jwt.firstName(), RoleType.valueOf(jwt.role())));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return this.roleType.getAuthorities();
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return this.email;
+    }
+
+    // Les jetons ne sont emis que pour des comptes actifs
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -0,0 +1,59 @@
+package com.ninehub.authentication.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of revoked token ids, checked by {@link JwtFilter} on every request.
+ * An entry is only needed until the token expires on its own, so expired entries are pruned.
+ */
+@Slf4j
+@Component
+public class TokenRevocationIndex implements MeterBinder {
+
+    // token id -> expiration (epoch millis)
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+
+    public boolean isRevoked(String tokenId) {
+        return !revoked.isEmpty() && revoked.containsKey(tokenId);
+    }
+
+    /**
+     * Revoke a token until its expiration. Tokens already expired are ignored.
+     */
+    public void revoke(String tokenId, Instant expiresAt) {
+        long expiration = expiresAt.toEpochMilli();
+        if (expiration > System.currentTimeMillis()) {
+            revoked.put(tokenId, expiration);
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * Drop the tokens which are expired anyway
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.prune-interval:PT1M}")
+    public void prune() {
+        long now = System.currentTimeMillis();
+        int before = revoked.size();
+        revoked.values().removeIf(expiration -> expiration <= now);
+        log.debug("Revocation index pruned: {} -> {} entries", before, revoked.size());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.revocation.index.size", this, TokenRevocationIndex::size)
+                .description("Revoked tokens which are not expired yet")
+                .register(registry);
+    }
+}
@@ -0,0 +1,41 @@
+package com.ninehub.authentication.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Swaps a {@link TokenPrincipal} for the fresh user entity on endpoints annotated with {@link RequiresUserEntity}
+ */
+@Component
+@RequiredArgsConstructor
+public class UserEntityInterceptor implements HandlerInterceptor {
+
+    private final UserDetailsService userDetailsService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod) || !requiresUserEntity(handlerMethod)) {
+            return true;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof TokenPrincipal principal) {
+            UserDetails user = userDetailsService.loadUserByUsername(principal.email());
+            SecurityContextHolder.getContext().setAuthentication(RoleAuthentication.of(user));
+        }
+        return true;
+    }
+
+    private static boolean requiresUserEntity(HandlerMethod handlerMethod) {
+        return handlerMethod.hasMethodAnnotation(RequiresUserEntity.class)
+                || handlerMethod.getBeanType().isAnnotationPresent(RequiresUserEntity.class);
+    }
+}
@@ -0,0 +1,32 @@
+package com.ninehub.authentication.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+
+/**
+ * Immutable view of the claims of a token whose signature and expiry have been checked.
+ */
+public record VerifiedJwt(String tokenId,
+                          String subject,
+                          String email,
+                          String firstName,
+                          String role,
+                          Instant issuedAt,
+                          Instant expiresAt) {
+
+    /**
+     * @param fallbackId identifier used for tokens issued before the jti claim was added
+     */
+    static VerifiedJwt from(Claims claims, String fallbackId) {
+        return new VerifiedJwt(
+                claims.getId() != null ? claims.getId() : fallbackId,
+                claims.getSubject(),
+                claims.get("email", String.class),
+                claims.get("firstName", String.class),
+                claims.get("role", String.class),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null
+        );
+    }
+}
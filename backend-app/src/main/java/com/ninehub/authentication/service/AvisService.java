@@ -1,12 +1,13 @@
 package com.ninehub.authentication.service;
 
+import com.ninehub.authentication.dto.AvisStats;
+import com.ninehub.authentication.dto.AvisView;
 import com.ninehub.authentication.entity.Avis;
 import com.ninehub.authentication.entity.User;
 import com.ninehub.authentication.repository.AvisRepository;
 import lombok.AllArgsConstructor;
-import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.ResponseEntity;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -17,17 +18,68 @@ import java.util.List;
 @Service
 @AllArgsConstructor
 public class AvisService {
+    private static final int MAX_MESSAGE_LENGTH = 255;
+    private static final int MAX_STATUS_ATTEMPTS = 3;
+
     private final AvisRepository avisRepository;
+    private final AvisWriteBehindBuffer writeBehindBuffer;
+    private final AvisStatistics statistics;
 
     public void createAvis(Avis avis){
+        if (avis.getMessage() == null || avis.getMessage().isBlank()) {
+            throw new RuntimeException("The review message is required");
+        }
+        if (avis.getMessage().length() > MAX_MESSAGE_LENGTH) {
+            throw new RuntimeException("The review message must not exceed " + MAX_MESSAGE_LENGTH + " characters");
+        }
+
         // Maintenant que le user est connecter, on recupere le contexte pour qu'il puisse effectuer toute les actions sur le site
         // Avoir l'utilisateur connecter
         UserDetails user = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (writeBehindBuffer.isEnabled()) {
+            // Insere plus tard, groupe avec les autres avis
+            writeBehindBuffer.submit(avis.getMessage(), avis.getStatus(), ((User) user).getId());
+            return;
+        }
         avis.setUser((User) user);
         this.avisRepository.save(avis);
+        statistics.recordCreated(avis.getStatus(), avis.getUser().getId());
+    }
+
+    /**
+     * Moderation: change the status of a review and move it between the status counters.
+     * The UPDATE only applies if the status read is still the current one, so concurrent moderators never
+     * count the same change twice; the status is read again when another one changed it meanwhile.
+     * Not transactional on purpose: each attempt must read the last committed status.
+     */
+    public void updateStatus(Long id, String status){
+        for (int attempt = 1; ; attempt++) {
+            Avis avis = this.avisRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Review not found with id: " + id));
+            String oldStatus = avis.getStatus();
+            if (this.avisRepository.changeStatus(id, oldStatus, status) == 1) {
+                statistics.recordStatusChange(oldStatus, status);
+                return;
+            }
+            if (attempt >= MAX_STATUS_ATTEMPTS) {
+                throw new RuntimeException("The review status is being changed concurrently, please try again");
+            }
+        }
+    }
+
+    public AvisStats getStats(){
+        return statistics.stats();
+    }
+
+    public long countForUser(Long userId){
+        return statistics.countForUser(userId);
     }
 
-    public List<Avis> getAllAvis(){
-        return this.avisRepository.findAll();
+    /**
+     * One page of the review feed, newest first
+     * @param beforeId id of the last review of the previous page, null for the first page
+     */
+    public List<AvisView> getAvisFeed(Long beforeId, int limit, String status){
+        return this.avisRepository.findFeed(beforeId != null ? beforeId : Long.MAX_VALUE, status, PageRequest.of(0, limit));
     }
 }
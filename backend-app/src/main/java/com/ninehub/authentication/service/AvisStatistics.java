@@ -0,0 +1,119 @@
+package com.ninehub.authentication.service;
+
+import com.ninehub.authentication.dto.AvisCountDto;
+import com.ninehub.authentication.dto.AvisStats;
+import com.ninehub.authentication.repository.AvisRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Review counters per status and per author, read by the moderation dashboard without touching the database.
+ * Loaded at startup by a single GROUP BY, then updated by the service on every insert and status change.
+ * Changes made outside this instance (another instance, a script, a deleted user) are caught up by a
+ * periodic reconciliation which loads the counts again and replaces the counters.
+ */
+@Slf4j
+@Component
+public class AvisStatistics {
+
+    // Cle utilisee pour les avis sans statut, les maps concurrentes n'acceptent pas null
+    public static final String NO_STATUS = "NONE";
+
+    private final AvisRepository avisRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private volatile Counters counters = new Counters(Instant.EPOCH);
+
+    public AvisStatistics(AvisRepository avisRepository, PlatformTransactionManager transactionManager) {
+        this.avisRepository = avisRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void recordCreated(String status, Long userId) {
+        Counters current = counters;
+        current.byStatus.computeIfAbsent(key(status), s -> new LongAdder()).increment();
+        if (userId != null) {
+            current.byUser.computeIfAbsent(userId, id -> new LongAdder()).increment();
+        }
+    }
+
+    public void recordStatusChange(String oldStatus, String newStatus) {
+        if (key(oldStatus).equals(key(newStatus))) {
+            return;
+        }
+        Counters current = counters;
+        current.byStatus.computeIfAbsent(key(oldStatus), s -> new LongAdder()).decrement();
+        current.byStatus.computeIfAbsent(key(newStatus), s -> new LongAdder()).increment();
+    }
+
+    public AvisStats stats() {
+        Counters current = counters;
+        Map<String, Long> byStatus = new TreeMap<>();
+        long total = 0;
+        for (Map.Entry<String, LongAdder> entry : current.byStatus.entrySet()) {
+            long count = entry.getValue().sum();
+            if (count > 0) {
+                byStatus.put(entry.getKey(), count);
+                total += count;
+            }
+        }
+        return new AvisStats(total, byStatus, current.reconciledAt);
+    }
+
+    public long countForUser(Long userId) {
+        LongAdder count = counters.byUser.get(userId);
+        return count != null ? count.sum() : 0;
+    }
+
+    /**
+     * Load the counts from the database and replace the in-memory counters.
+     * Updates landing between the query and the swap are lost until the next reconciliation.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    @Scheduled(fixedDelayString = "${avis.stats.reconcile-interval:PT10M}", initialDelayString = "${avis.stats.reconcile-interval:PT10M}")
+    public synchronized void reconcile() {
+        Instant now = Instant.now();
+        List<AvisCountDto> rows = readOnlyTransaction.execute(status -> avisRepository.countByStatusAndUser());
+        Counters loaded = new Counters(now);
+        for (AvisCountDto row : rows) {
+            loaded.byStatus.computeIfAbsent(key(row.status()), s -> new LongAdder()).add(row.count());
+            if (row.userId() != null) {
+                loaded.byUser.computeIfAbsent(row.userId(), id -> new LongAdder()).add(row.count());
+            }
+        }
+
+        AvisStats before = stats();
+        counters = loaded;
+        AvisStats after = stats();
+        if (before.total() != after.total() && before.reconciledAt().isAfter(Instant.EPOCH)) {
+            log.info("Review counters reconciled: {} in memory, {} in database", before.total(), after.total());
+        }
+    }
+
+    private static String key(String status) {
+        return status != null ? status : NO_STATUS;
+    }
+
+    private static final class Counters {
+        private final ConcurrentHashMap<String, LongAdder> byStatus = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Long, LongAdder> byUser = new ConcurrentHashMap<>();
+        private final Instant reconciledAt;
+
+        private Counters(Instant reconciledAt) {
+            this.reconciledAt = reconciledAt;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.ninehub.authentication.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in write-behind path for reviews ({@code avis.write-behind.enabled}).
+ * Accepted reviews wait in a bounded buffer and a single writer inserts them in groups, with one multi-row
+ * INSERT per batch, as soon as a batch is full or the flush interval has elapsed since its first review.
+ * When the buffer is full, submitters wait a short time and are then rejected (answered with 503).
+ * A batch that fails is retried with an exponential backoff, the buffer filling up meanwhile; a batch
+ * rejected by a constraint is inserted again row by row, so one invalid review (its author deleted meanwhile)
+ * is the only one dropped, and logged. Accepted reviews are never discarded silently.
+ * On shutdown the writer drains what is left before the application stops.
+ */
+@Slf4j
+@Component
+public class AvisWriteBehindBuffer implements MeterBinder {
+
+    // Apres l'arret demande, un lot qui echoue encore est abandonne (et journalise) apres ce nombre d'essais
+    private static final int SHUTDOWN_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AvisStatistics statistics;
+    private final boolean enabled;
+    private final BlockingQueue<PendingAvis> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration offerTimeout;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+
+    private Thread writer;
+    private volatile boolean running;
+
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public AvisWriteBehindBuffer(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 AvisStatistics statistics,
+                                 @Value("${avis.write-behind.enabled:false}") boolean enabled,
+                                 @Value("${avis.write-behind.capacity:10000}") int capacity,
+                                 @Value("${avis.write-behind.batch-size:200}") int batchSize,
+                                 @Value("${avis.write-behind.flush-interval:PT0.5S}") Duration flushInterval,
+                                 @Value("${avis.write-behind.offer-timeout:PT0.1S}") Duration offerTimeout,
+                                 @Value("${avis.write-behind.retry-backoff:PT0.5S}") Duration retryBackoff,
+                                 @Value("${avis.write-behind.max-retry-backoff:PT30S}") Duration maxRetryBackoff) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.statistics = statistics;
+        this.enabled = enabled;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.offerTimeout = offerTimeout;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::run, "avis-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accept a review for a later insert.
+     * Throws a {@link RejectedExecutionException} when the buffer stays full for longer than the offer timeout.
+     */
+    public void submit(String message, String status, Long userId) {
+        PendingAvis avis = new PendingAvis(message, status, userId);
+        boolean accepted;
+        try {
+            accepted = running && queue.offer(avis, offerTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        // Arret demande pendant l'offre: le dernier vidage a pu passer avant; si l'avis est encore la, il est refuse
+        if (accepted && !running && queue.remove(avis)) {
+            accepted = false;
+        }
+        if (!accepted) {
+            rejected.increment();
+            throw new RejectedExecutionException("Review buffer is full, please try again later");
+        }
+    }
+
+    /**
+     * Stop accepting reviews and wait for the writer to insert the ones still buffered.
+     * The wait is bounded by the writer itself, which gives up a failing batch after a few attempts.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        writer.join();
+        // Filet de securite: le writer a tout vide et submit refuse ce qui arrive apres l'arret
+        List<PendingAvis> left = new ArrayList<>();
+        queue.drainTo(left);
+        if (!left.isEmpty()) {
+            log.warn("{} reviews were still buffered at shutdown", left.size());
+            lost(left, "not written before shutdown");
+        }
+    }
+
+    public int bufferedCount() {
+        return queue.size();
+    }
+
+    public long flushedCount() {
+        return flushed.sum();
+    }
+
+    public long batchCount() {
+        return batches.sum();
+    }
+
+    public long failedCount() {
+        return failed.sum();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    public long retryCount() {
+        return retries.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("avis.write-behind.buffered", this, AvisWriteBehindBuffer::bufferedCount).register(registry);
+        FunctionCounter.builder("avis.write-behind.flushed", this, AvisWriteBehindBuffer::flushedCount).register(registry);
+        FunctionCounter.builder("avis.write-behind.failed", this, AvisWriteBehindBuffer::failedCount).register(registry);
+        FunctionCounter.builder("avis.write-behind.rejected", this, AvisWriteBehindBuffer::rejectedCount).register(registry);
+        FunctionCounter.builder("avis.write-behind.retries", this, AvisWriteBehindBuffer::retryCount).register(registry);
+    }
+
+    private void run() {
+        List<PendingAvis> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                // Arret demande: on ecrit ce qui a deja ete collecte puis on vide le buffer
+                break;
+            }
+            flush(batch);
+        }
+        do {
+            flush(batch);
+            queue.drainTo(batch, batchSize);
+        } while (!batch.isEmpty());
+    }
+
+    /**
+     * Wait for a first review, then gather more until the batch is full or the flush interval is over
+     */
+    private void collect(List<PendingAvis> batch) throws InterruptedException {
+        PendingAvis first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushInterval.toNanos();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            PendingAvis next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Insert the batch, retrying until it is written; the batch is empty on return
+     */
+    private void flush(List<PendingAvis> batch) {
+        Duration backoff = retryBackoff;
+        int attempt = 0;
+        while (!batch.isEmpty()) {
+            attempt++;
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(batch));
+                inserted(batch);
+                batch.clear();
+            } catch (DataIntegrityViolationException e) {
+                // Une ligne invalide ne doit pas faire perdre tout le lot
+                log.warn("Batch of {} buffered reviews rejected by a constraint, inserting them one by one", batch.size());
+                try {
+                    insertOneByOne(batch);
+                } catch (RuntimeException retryable) {
+                    backoff = retryLater(batch, retryable, attempt, backoff);
+                }
+            } catch (RuntimeException e) {
+                backoff = retryLater(batch, e, attempt, backoff);
+            }
+        }
+    }
+
+    /**
+     * Insert each review in its own transaction, removing from the batch the ones written and the ones
+     * rejected by a constraint. Any other failure is thrown with the rest still in the batch.
+     */
+    private void insertOneByOne(List<PendingAvis> batch) {
+        Iterator<PendingAvis> iterator = batch.iterator();
+        while (iterator.hasNext()) {
+            List<PendingAvis> row = List.of(iterator.next());
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(row));
+                inserted(row);
+            } catch (DataIntegrityViolationException e) {
+                lost(row, e.getMessage());
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Wait before the next attempt and return the following backoff.
+     * Once shutdown is requested the batch is given up after a few attempts, each review being logged.
+     */
+    private Duration retryLater(List<PendingAvis> batch, RuntimeException e, int attempt, Duration backoff) {
+        if (!running && attempt >= SHUTDOWN_ATTEMPTS) {
+            lost(batch, e.getMessage());
+            batch.clear();
+            return backoff;
+        }
+        retries.increment();
+        // Pendant l'arret l'attente reste courte: l'arret attend le writer
+        Duration wait = running || backoff.compareTo(retryBackoff) < 0 ? backoff : retryBackoff;
+        log.warn("Failed to insert {} buffered reviews (attempt {}), retrying in {} ms: {}",
+                batch.size(), attempt, wait.toMillis(), e.getMessage());
+        try {
+            Thread.sleep(wait.toMillis());
+        } catch (InterruptedException interrupted) {
+            // Arret demande pendant l'attente: on reessaie aussitot, dans la limite des essais d'arret
+        }
+        Duration next = backoff.multipliedBy(2);
+        return next.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : next;
+    }
+
+    private void inserted(List<PendingAvis> reviews) {
+        flushed.add(reviews.size());
+        batches.increment();
+        reviews.forEach(avis -> statistics.recordCreated(avis.status(), avis.userId()));
+    }
+
+    /**
+     * Reviews which could not be written: counted and logged one by one so they can be recovered
+     */
+    private void lost(List<PendingAvis> reviews, String reason) {
+        failed.add(reviews.size());
+        for (PendingAvis avis : reviews) {
+            log.error("Dropping buffered review of user {} (status {}): {} - message: {}",
+                    avis.userId(), avis.status(), reason, avis.message());
+        }
+    }
+
+    /**
+     * One INSERT with a row per review; ids are still assigned by the auto increment column
+     */
+    private void insert(List<PendingAvis> batch) {
+        StringBuilder sql = new StringBuilder("INSERT INTO avis (message, status, user_id) VALUES ");
+        sql.append(String.join(", ", Collections.nCopies(batch.size(), "(?, ?, ?)")));
+        Object[] args = new Object[batch.size() * 3];
+        for (int i = 0; i < batch.size(); i++) {
+            PendingAvis avis = batch.get(i);
+            args[i * 3] = avis.message();
+            args[i * 3 + 1] = avis.status();
+            args[i * 3 + 2] = avis.userId();
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+
+    /**
+     * Compared by identity, so a submitter withdrawing its review at shutdown removes its own one
+     */
+    private static final class PendingAvis {
+        private final String message;
+        private final String status;
+        private final Long userId;
+
+        private PendingAvis(String message, String status, Long userId) {
+            this.message = message;
+            this.status = status;
+            this.userId = userId;
+        }
+
+        private String message() {
+            return message;
+        }
+
+        private String status() {
+            return status;
+        }
+
+        private Long userId() {
+            return userId;
+        }
+    }
+}
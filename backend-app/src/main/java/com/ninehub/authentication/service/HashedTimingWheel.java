@@ -0,0 +1,69 @@
+package com.ninehub.authentication.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
+
+/**
+ * Expiry scheduler in the style of a hashed timing wheel: a deadline is hashed to the bucket of its tick,
+ * and each call to {@link #advance} only walks the buckets of the ticks elapsed since the previous call.
+ * Scheduling is O(1) and expiring costs nothing for the entries whose time has not come.
+ * Deadlines further away than one turn of the wheel simply stay in their bucket for more turns.
+ */
+public class HashedTimingWheel<K> {
+
+    private final long tickMillis;
+    private final Queue<Entry<K>>[] buckets;
+    private final int mask;
+    private long lastTick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(Duration tick, int bucketCount, long startMillis) {
+        this.tickMillis = Math.max(1, tick.toMillis());
+        int size = Integer.highestOneBit(Math.max(2, bucketCount - 1)) << 1;
+        this.buckets = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.mask = size - 1;
+        this.lastTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Safe to call from any thread
+     */
+    public void schedule(K key, long deadlineMillis) {
+        // Arrondi au tick superieur: une entree n'expire jamais avant son echeance
+        long tick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        buckets[(int) (tick & mask)].add(new Entry<>(key, deadlineMillis));
+    }
+
+    /**
+     * Hand every entry whose deadline has passed to the consumer, with the deadline it was scheduled for.
+     * Must be called from a single thread at a time.
+     */
+    public synchronized int advance(long nowMillis, BiConsumer<K, Long> expired) {
+        long currentTick = nowMillis / tickMillis;
+        // Au-dela d'un tour complet chaque seau n'a besoin d'etre visite qu'une fois
+        long from = Math.max(lastTick + 1, currentTick - mask);
+        int count = 0;
+        for (long tick = from; tick <= currentTick; tick++) {
+            Iterator<Entry<K>> iterator = buckets[(int) (tick & mask)].iterator();
+            while (iterator.hasNext()) {
+                Entry<K> entry = iterator.next();
+                if (entry.deadlineMillis() <= nowMillis) {
+                    iterator.remove();
+                    expired.accept(entry.key(), entry.deadlineMillis());
+                    count++;
+                }
+            }
+        }
+        lastTick = Math.max(lastTick, currentTick);
+        return count;
+    }
+
+    private record Entry<K>(K key, long deadlineMillis) {
+    }
+}
@@ -1,145 +1,155 @@
 package com.ninehub.authentication.service;
 
-import com.ninehub.authentication.entity.Jwt;
-import com.ninehub.authentication.entity.RefreshToken;
+import com.ninehub.authentication.dto.RevokedTokenDto;
+import com.ninehub.authentication.dto.TokenSession;
 import com.ninehub.authentication.entity.User;
-import com.ninehub.authentication.repository.JwtRepository;
-import io.jsonwebtoken.Claims;
+import com.ninehub.authentication.entity.enums.RoleType;
+import com.ninehub.authentication.repository.TokenStore;
+import com.ninehub.authentication.security.JwtKeyRing;
+import com.ninehub.authentication.security.TokenDigest;
+import com.ninehub.authentication.security.TokenRevocationIndex;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import javax.crypto.SecretKey;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
-@Transactional
-@RequiredArgsConstructor
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String SECRET;
-
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
-
-    @Value("${jwt.refresh-expiration}")
-    private long refreshExpiration;
-
-    private final JwtRepository jwtRepository;
+    private final long jwtExpiration;
+    private final long refreshExpiration;
+    private final TokenStore tokenStore;
+    private final JwtKeyRing keyRing;
+    private final TokenRevocationIndex revocationIndex;
+    private final MeterRegistry meterRegistry;
+
+    public JwtService(TokenStore tokenStore,
+                      JwtKeyRing keyRing,
+                      TokenRevocationIndex revocationIndex,
+                      MeterRegistry meterRegistry,
+                      @Value("${jwt.expiration}") long jwtExpiration,
+                      @Value("${jwt.refresh-expiration}") long refreshExpiration) {
+        this.tokenStore = tokenStore;
+        this.keyRing = keyRing;
+        this.revocationIndex = revocationIndex;
+        this.meterRegistry = meterRegistry;
+        this.jwtExpiration = jwtExpiration;
+        this.refreshExpiration = refreshExpiration;
+    }
 
     /**
      * Generate NEW access token and refresh token for a user (used during login)
      * This disables all previous tokens and creates fresh ones
      */
     public Map<String, String> generate(User user) {
-        log.info("Generating new tokens for user: {}", user.getEmail());
-        this.disableTokens(user);
-
-        Map<String, String> jwtMap = new HashMap<>(this.generateJwt(user));
-
-        RefreshToken refreshToken = RefreshToken.builder()
-                .refreshTokenValue(UUID.randomUUID().toString())
-                .isExpired(false)
-                .createdAt(Instant.now())
-                .expiredAt(Instant.now().plus(refreshExpiration, ChronoUnit.MILLIS))
-                .build();
-
-        Jwt jwt = Jwt.builder()
-                .value(jwtMap.get("bearer"))
-                .deactivate(false)
-                .expired(false)
-                .user(user)
-                .refreshToken(refreshToken)
-                .build();
-
-        jwtRepository.save(jwt);
-
-        jwtMap.put("refresh-token", refreshToken.getRefreshTokenValue());
-        log.info("New tokens generated successfully for user: {}", user.getEmail());
+        return this.generate(user.getId(), user.getEmail(), user.getFirstName(), user.getRole().getRoleType());
+    }
+
+    private Map<String, String> generate(Long userId, String email, String firstName, RoleType roleType) {
+        log.info("Generating new tokens for user: {}", email);
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        IssuedJwt bearer = this.generateJwt(email, firstName, roleType);
+        String refreshTokenValue = UUID.randomUUID().toString();
+
+        // Revoquer les sessions precedentes et enregistrer la nouvelle en une seule operation atomique du store
+        List<RevokedTokenDto> revoked = tokenStore.replaceSessions(new TokenSession(
+                TokenDigest.sha256(bearer.value()),
+                bearer.tokenId(),
+                bearer.expiresAt(),
+                TokenDigest.sha256(refreshTokenValue),
+                Instant.now().plus(refreshExpiration, ChronoUnit.MILLIS),
+                userId,
+                email,
+                firstName,
+                roleType,
+                false
+        ));
+        this.index(revoked);
+        if (!revoked.isEmpty()) {
+            log.info("Disabled {} active tokens for user: {}", revoked.size(), email);
+        }
+
+        Map<String, String> jwtMap = new HashMap<>();
+        jwtMap.put("bearer", bearer.value());
+        jwtMap.put("refresh-token", refreshTokenValue);
+        log.info("New tokens generated successfully for user: {}", email);
+        sample.stop(meterRegistry.timer("auth.token.generate"));
         return jwtMap;
     }
 
     /**
-     * Generate the actual JWT token string with claims
+     * Generate the actual JWT token string with claims, signed with the current key of the ring
      */
-    private Map<String, String> generateJwt(User user) {
+    private IssuedJwt generateJwt(String email, String firstName, RoleType roleType) {
+        String tokenId = UUID.randomUUID().toString();
         Instant now = Instant.now();
         Instant expirationTime = now.plus(jwtExpiration, ChronoUnit.MILLIS);
 
         // Create mutable map to include role
         Map<String, Object> claims = new HashMap<>();
-        claims.put("firstName", user.getFirstName());
-        claims.put("email", user.getEmail());
-        claims.put("role", user.getRole().getRoleType().name()); // ADMIN or USER
-        claims.put("sub", user.getEmail());
+        claims.put("firstName", firstName);
+        claims.put("email", email);
+        claims.put("role", roleType.name()); // ADMIN or USER
+        claims.put("sub", email);
 
+        JwtKeyRing.SigningKey signingKey = keyRing.current();
         String bearer = Jwts.builder()
+                .header().keyId(signingKey.kid()).and()
+                .id(tokenId)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(expirationTime))
-                .subject(user.getEmail())
+                .subject(email)
                 .claims(claims)
-                .signWith(getSignKey())
+                .signWith(signingKey.privateKey(), Jwts.SIG.RS256)
                 .compact();
 
-        return Map.of("bearer", bearer);
+        return new IssuedJwt(bearer, tokenId, expirationTime);
     }
 
-    public String extractUsername(String token) {
-        return getClaim(token, Claims::getSubject);
-    }
-
-    public boolean isTokenExpired(String token) {
-        Date expirationDate = getClaim(token, Claims::getExpiration);
-        return expirationDate.before(new Date());
-    }
-
-    private <T> T getClaim(String token, Function<Claims, T> function) {
-        Claims claims = getAllClaims(token);
-        return function.apply(claims);
-    }
-
-    private Claims getAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private SecretKey getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * A freshly signed access token with the values stored next to its digest
+     */
+    private record IssuedJwt(String value, String tokenId, Instant expiresAt) {
     }
 
     /**
-     * Disable all active tokens for a user (used before generating new tokens)
+     * Disable all active tokens of several users at once, then add them to the revocation index
+     * @return the number of tokens disabled
      */
-    private void disableTokens(User user) {
-        List<Jwt> validJwtList = jwtRepository.findByUserAndDeactivateAndExpired(user, false, false)
-                .orElse(Collections.emptyList());
-
-        if (!validJwtList.isEmpty()) {
-            log.info("Disabling {} active tokens for user: {}", validJwtList.size(), user.getEmail());
-            validJwtList.forEach(jwt -> {
-                jwt.setExpired(true);
-                jwt.setDeactivate(true);
-            });
-            jwtRepository.saveAll(validJwtList);
+    public int disableTokens(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // Seuls les jetons revoques par cet appel sont indexes, pas ceux des connexions precedentes
+        List<RevokedTokenDto> revoked = tokenStore.revokeAllForUsers(userIds);
+        this.index(revoked);
+        sample.stop(meterRegistry.timer("auth.token.revoke"));
+        return revoked.size();
+    }
+
+    private void index(List<RevokedTokenDto> revoked) {
+        if (revoked.isEmpty()) {
+            return;
+        }
+        for (RevokedTokenDto token : revoked) {
+            // Jetons anterieurs au claim jti: pas d'identifiant a indexer
+            if (token.tokenId() != null) {
+                revocationIndex.revoke(token.tokenId(), token.expiresAt());
+            }
         }
+        meterRegistry.counter("auth.tokens.revoked").increment(revoked.size());
     }
 
     /**
@@ -147,51 +157,62 @@ public class JwtService {
      */
     public void logout() {
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        Jwt jwt = jwtRepository.findByUserAndDeactivateAndExpired(user, false, false)
-                .map(jwtList -> jwtList.get(0))
-                .orElse(null);
-
-        if (jwt != null) {
+        if (this.disableTokens(List.of(user.getId())) > 0) {
             log.info("Logout user: {}", user.getEmail());
-            jwt.setDeactivate(true);
-            jwt.setExpired(true);
-            jwtRepository.save(jwt);
         }
     }
 
     /**
-     * Clean expired tokens every hour
+     * Load the disabled tokens which are not expired yet into the revocation index
      */
-    @Scheduled(cron = "0 0 */1 * * *")
-    public void cleanExpiredTokens() {
-        log.info("Cleaning expired tokens");
-        jwtRepository.deleteAllByExpiredAndDeactivate(true, true);
+    @EventListener(ContextRefreshedEvent.class)
+    public void warmRevocationIndex() {
+        tokenStore.forEachRevokedToken(Instant.now(), token -> revocationIndex.revoke(token.tokenId(), token.expiresAt()));
+        log.info("Revocation index loaded with {} tokens", revocationIndex.size());
     }
 
     /**
      * Refresh tokens using an existing refresh token
      * This is used when the access token expires but refresh token is still valid
      */
-    @Transactional
     public Map<String, String> refreshToken(Map<String, String> refreshRequest) {
-        String refreshToken = refreshRequest.get("refresh-token");
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "rejected";
+        try {
+            Map<String, String> tokens = this.refresh(refreshRequest.get("refresh-token"));
+            outcome = "success";
+            return tokens;
+        } finally {
+            sample.stop(meterRegistry.timer("auth.token.refresh", "outcome", outcome));
+        }
+    }
+
+    private Map<String, String> refresh(String refreshToken) {
         log.info("Attempting to refresh token with refresh token");
 
-        Jwt jwtRefresh = jwtRepository.findByRefreshTokenRefreshTokenValue(refreshToken)
+        if (refreshToken == null) {
+            throw new RuntimeException("Refresh token not found");
+        }
+        TokenSession session = tokenStore.findByRefreshHash(TokenDigest.sha256(refreshToken))
                 .orElseThrow(() -> new RuntimeException("Refresh token not found"));
 
-        if (jwtRefresh.getRefreshToken().getExpiredAt().isBefore(Instant.now())) {
+        // Un refresh token deja utilise ou revoque (logout) ne peut plus servir
+        if (session.revoked()) {
+            log.warn("Refresh token revoked");
+            throw new RuntimeException("Refresh token revoked");
+        }
+
+        if (session.refreshExpiresAt().isBefore(Instant.now())) {
             log.warn("Refresh token expired");
             throw new RuntimeException("Refresh token expired");
         }
 
-        log.info("Refresh token valid, generating new tokens for user: {}", jwtRefresh.getUser().getEmail());
-        this.disableTokens(jwtRefresh.getUser());
-        return this.generate(jwtRefresh.getUser());
+        log.info("Refresh token valid, generating new tokens for user: {}", session.email());
+        return this.generate(session.userId(), session.email(), session.firstName(), session.roleType());
     }
 
-    public Jwt loadTokenByValue(String token) {
-        return jwtRepository.findByValue(token)
+    public TokenSession loadTokenByValue(String token) {
+        return tokenStore.findByAccessHash(TokenDigest.sha256(token))
                 .orElseThrow(() -> new RuntimeException("Token not found"));
     }
 
@@ -0,0 +1,223 @@
+package com.ninehub.authentication.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends emails out of the request thread.
+ * Messages go into a bounded queue drained by a few workers, and each worker keeps its own
+ * authenticated SMTP connection open between messages instead of doing a handshake per email.
+ */
+@Slf4j
+@Component
+public class MailDispatcher implements MeterBinder {
+
+    private final JavaMailSenderImpl mailSender;
+    private final BlockingQueue<MimeMessage> queue;
+    private final int workerCount;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration idleTimeout;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder sendTimeNanos = new LongAdder();
+    private final AtomicLong maxSendTimeNanos = new AtomicLong();
+
+    public MailDispatcher(JavaMailSenderImpl mailSender,
+                          @Value("${notification.mail.workers:2}") int workerCount,
+                          @Value("${notification.mail.queue-capacity:500}") int queueCapacity,
+                          @Value("${notification.mail.max-attempts:3}") int maxAttempts,
+                          @Value("${notification.mail.initial-backoff:PT1S}") Duration initialBackoff,
+                          @Value("${notification.mail.idle-timeout:PT30S}") Duration idleTimeout) {
+        this.mailSender = mailSender;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workerCount = workerCount;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.idleTimeout = idleTimeout;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(new Worker(), "mail-dispatcher-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Queue a message for sending.
+     * Throws a {@link RejectedExecutionException} when the queue is full so the caller can answer 503.
+     */
+    public void dispatch(MimeMessage message) {
+        if (!running || !queue.offer(message)) {
+            throw new RejectedExecutionException("Mail queue is full, please try again later");
+        }
+    }
+
+    /**
+     * Stop accepting messages, send what is still queued and close the connections
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(idleTimeout.toMillis());
+        }
+        if (!queue.isEmpty()) {
+            log.warn("{} emails were still queued at shutdown", queue.size());
+        }
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    public long sentCount() {
+        return sent.sum();
+    }
+
+    public long failedCount() {
+        return failed.sum();
+    }
+
+    public long retryCount() {
+        return retried.sum();
+    }
+
+    public Duration averageSendTime() {
+        long count = sent.sum();
+        return count == 0 ? Duration.ZERO : Duration.ofNanos(sendTimeNanos.sum() / count);
+    }
+
+    public Duration maxSendTime() {
+        return Duration.ofNanos(maxSendTimeNanos.get());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mail.queue.depth", this, MailDispatcher::queueDepth).register(registry);
+        FunctionTimer.builder("mail.send", this, MailDispatcher::sentCount, dispatcher -> dispatcher.sendTimeNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("SMTP exchanges of the messages sent")
+                .register(registry);
+        FunctionCounter.builder("mail.failed", this, MailDispatcher::failedCount).register(registry);
+        FunctionCounter.builder("mail.retried", this, MailDispatcher::retryCount).register(registry);
+    }
+
+    private class Worker implements Runnable {
+
+        // Connexion SMTP propre a ce worker, reutilisee tant que le serveur la garde ouverte
+        private Transport transport;
+
+        @Override
+        public void run() {
+            try {
+                while (running || !queue.isEmpty()) {
+                    MimeMessage message = queue.poll(idleTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                    if (message == null) {
+                        // Rien a envoyer: on libere la connexion plutot que de la laisser expirer cote serveur
+                        close();
+                    } else {
+                        send(message);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        private void send(MimeMessage message) throws InterruptedException {
+            for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+                try {
+                    connect();
+                    long start = System.nanoTime();
+                    message.setSentDate(new Date());
+                    message.saveChanges();
+                    transport.sendMessage(message, message.getAllRecipients());
+                    record(System.nanoTime() - start);
+                    return;
+                } catch (MessagingException e) {
+                    close();
+                    if (attempt == maxAttempts) {
+                        failed.increment();
+                        log.error("Failed to send email after {} attempts: {}", attempt, e.getMessage());
+                        return;
+                    }
+                    retried.increment();
+                    long backoff = initialBackoff.toMillis() << (attempt - 1);
+                    log.warn("Failed to send email (attempt {}), retrying in {} ms: {}", attempt, backoff, e.getMessage());
+                    Thread.sleep(backoff);
+                }
+            }
+        }
+
+        private void connect() throws MessagingException {
+            if (transport != null && transport.isConnected()) {
+                return;
+            }
+            String protocol = mailSender.getProtocol();
+            if (protocol == null) {
+                protocol = mailSender.getSession().getProperty("mail.transport.protocol");
+            }
+            transport = mailSender.getSession().getTransport(protocol != null ? protocol : "smtp");
+            transport.connect(
+                    mailSender.getHost(),
+                    mailSender.getPort(),
+                    StringUtils.hasLength(mailSender.getUsername()) ? mailSender.getUsername() : null,
+                    StringUtils.hasLength(mailSender.getPassword()) ? mailSender.getPassword() : null
+            );
+        }
+
+        private void close() {
+            if (transport == null) {
+                return;
+            }
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Error while closing SMTP connection: {}", e.getMessage());
+            }
+            transport = null;
+        }
+
+        private void record(long nanos) {
+            sent.increment();
+            sendTimeNanos.add(nanos);
+            maxSendTimeNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.ninehub.authentication.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.AllArgsConstructor;
@@ -12,8 +14,14 @@ import org.springframework.stereotype.Service;
 public class NotificationService {
 
     private final JavaMailSender javaMailSender;
+    private final MailDispatcher mailDispatcher;
+    private final MeterRegistry meterRegistry;
 
+    /**
+     * Build the activation email and hand it to the {@link MailDispatcher}; the SMTP exchange happens later on a worker
+     */
     public void sendActivationEmail(String to, String firstName, String activationCode) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
             MimeMessage message = javaMailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
@@ -25,9 +33,11 @@ public class NotificationService {
             String htmlContent = buildActivationEmailHtml(firstName, activationCode);
             helper.setText(htmlContent, true); // true = HTML content
 
-            javaMailSender.send(message);
+            mailDispatcher.dispatch(message);
         } catch (MessagingException e) {
             throw new RuntimeException("Failed to send activation email", e);
+        } finally {
+            sample.stop(meterRegistry.timer("mail.activation.enqueue"));
         }
     }
 
@@ -0,0 +1,97 @@
+package com.ninehub.authentication.service;
+
+import com.ninehub.authentication.dto.PurgeReport;
+import com.ninehub.authentication.repository.TokenStore;
+import com.ninehub.authentication.repository.ValidationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Deletes expired sessions and validation codes in bounded chunks.
+ * Each chunk runs in its own short transaction and the job pauses between chunks,
+ * so locks are held briefly and replicas can keep up.
+ */
+@Slf4j
+@Service
+public class PurgeService {
+
+    private final TokenStore tokenStore;
+    private final ValidationRepository validationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Pageable chunk;
+    private final Duration pause;
+    private final MeterRegistry meterRegistry;
+
+    private volatile PurgeReport lastReport;
+
+    public PurgeService(TokenStore tokenStore,
+                        ValidationRepository validationRepository,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${purge.chunk-size:500}") int chunkSize,
+                        @Value("${purge.pause:PT0.2S}") Duration pause,
+                        MeterRegistry meterRegistry) {
+        this.tokenStore = tokenStore;
+        this.validationRepository = validationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.chunk = PageRequest.of(0, chunkSize);
+        this.pause = pause;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Purge expired rows every hour
+     */
+    @Scheduled(cron = "${purge.cron:0 0 */1 * * *}")
+    public PurgeReport purgeExpired() {
+        long start = System.nanoTime();
+        Instant now = Instant.now();
+
+        // Chaque appel au store est une transaction courte sur au plus un chunk de sessions
+        long tokens = purgeInChunks(() -> tokenStore.purgeExpired(now, chunk.getPageSize()));
+        long validations = purgeInChunks(() -> transactionTemplate.execute(status -> {
+            List<Long> ids = validationRepository.findExpiredIds(now, chunk);
+            return ids.isEmpty() ? 0 : validationRepository.deleteAllByIds(ids);
+        }));
+
+        PurgeReport report = new PurgeReport(tokens, validations, Duration.ofNanos(System.nanoTime() - start));
+        lastReport = report;
+        meterRegistry.timer("purge.duration").record(report.duration());
+        meterRegistry.counter("purge.rows", "table", "sessions").increment(report.tokensPurged());
+        meterRegistry.counter("purge.rows", "table", "validations").increment(report.validationsPurged());
+        log.info("Purged {} sessions and {} validation codes in {} ms",
+                report.tokensPurged(), report.validationsPurged(), report.duration().toMillis());
+        return report;
+    }
+
+    public PurgeReport lastReport() {
+        return lastReport;
+    }
+
+    private long purgeInChunks(Supplier<Integer> deleteChunk) {
+        long total = 0;
+        while (true) {
+            Integer deleted = deleteChunk.get();
+            if (deleted == null || deleted == 0) {
+                return total;
+            }
+            total += deleted;
+            try {
+                Thread.sleep(pause.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return total;
+            }
+        }
+    }
+}
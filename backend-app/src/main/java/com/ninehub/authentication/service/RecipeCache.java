@@ -0,0 +1,88 @@
+package com.ninehub.authentication.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.ninehub.authentication.dto.RecipeDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Read-mostly cache of the recipe catalogue: single recipes by id and listing pages by cursor.
+ * Entries are immutable DTOs, so they are shared between readers without copying.
+ * Every write evicts the recipe and all the pages, since a page can hold any recipe.
+ */
+@Component
+public class RecipeCache implements MeterBinder {
+
+    private final Cache<Long, RecipeDto> recipes;
+    private final Cache<PageKey, List<RecipeDto>> pages;
+
+    public RecipeCache(@Value("${recipe.cache.max-size:5000}") long maxSize,
+                       @Value("${recipe.cache.max-pages:500}") long maxPages,
+                       @Value("${recipe.cache.ttl:PT10M}") Duration ttl) {
+        this.recipes = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maxPages)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public RecipeDto get(Long id, Function<Long, RecipeDto> loader) {
+        return recipes.get(id, loader);
+    }
+
+    public List<RecipeDto> getPage(long afterId, int limit, Function<PageKey, List<RecipeDto>> loader) {
+        return pages.get(new PageKey(afterId, limit), loader);
+    }
+
+    /**
+     * Drop the recipe and every cached page. Inside a transaction they are dropped again after commit,
+     * so a concurrent reader cannot put back the rows as they were before the commit.
+     */
+    public void evict(Long id) {
+        invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(id);
+                }
+            });
+        }
+    }
+
+    public CacheStats stats() {
+        return recipes.stats().plus(pages.stats());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, recipes, "recipes");
+        CaffeineCacheMetrics.monitor(registry, pages, "recipe-pages");
+    }
+
+    private void invalidate(Long id) {
+        if (id != null) {
+            recipes.invalidate(id);
+        }
+        pages.invalidateAll();
+    }
+
+    public record PageKey(long afterId, int limit) {
+    }
+}
@@ -0,0 +1,98 @@
+package com.ninehub.authentication.service;
+
+import com.ninehub.authentication.dto.RecipeDto;
+import com.ninehub.authentication.dto.StepDto;
+import com.ninehub.authentication.entity.Recipes;
+import com.ninehub.authentication.entity.Step;
+import com.ninehub.authentication.repository.RecipesRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+@Slf4j
+@Service
+public class RecipeService {
+
+    private final RecipesRepository recipesRepository;
+    private final RecipeCache recipeCache;
+
+    // Transaction ouverte seulement par le chargement d'une entree absente du cache, pas sur un hit
+    private final TransactionTemplate readOnlyTransaction;
+
+    public RecipeService(RecipesRepository recipesRepository, RecipeCache recipeCache,
+                         PlatformTransactionManager transactionManager) {
+        this.recipesRepository = recipesRepository;
+        this.recipeCache = recipeCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * One page of the catalogue, ordered by id: one query for the recipes and one for all their steps
+     * @param afterId id of the last recipe of the previous page, null for the first page
+     */
+    public List<RecipeDto> listRecipes(Long afterId, int limit) {
+        long cursor = afterId != null ? afterId : 0L;
+        return recipeCache.getPage(cursor, limit, key -> readOnlyTransaction.execute(status -> recipesRepository
+                .findPageAfter(key.afterId(), PageRequest.of(0, key.limit()))
+                .stream()
+                .map(RecipeDto::from)
+                .toList()));
+    }
+
+    public RecipeDto getRecipe(Long id) {
+        return recipeCache.get(id, key -> readOnlyTransaction.execute(status -> recipesRepository.findWithStepsById(key)
+                .map(RecipeDto::from)
+                .orElseThrow(() -> new RuntimeException("Recipe not found with id: " + key))));
+    }
+
+    @Transactional
+    public RecipeDto createRecipe(RecipeDto dto) {
+        Recipes recipe = new Recipes();
+        recipe.setCreatedAt(LocalDateTime.now());
+        apply(recipe, dto);
+        recipesRepository.save(recipe);
+        recipeCache.evict(recipe.getId());
+        log.info("Recipe created with id: {}", recipe.getId());
+        return RecipeDto.from(recipe);
+    }
+
+    @Transactional
+    public RecipeDto updateRecipe(Long id, RecipeDto dto) {
+        Recipes recipe = recipesRepository.findWithStepsById(id)
+                .orElseThrow(() -> new RuntimeException("Recipe not found with id: " + id));
+        apply(recipe, dto);
+        recipesRepository.save(recipe);
+        recipeCache.evict(id);
+        log.info("Recipe updated with id: {}", id);
+        return RecipeDto.from(recipe);
+    }
+
+    private static void apply(Recipes recipe, RecipeDto dto) {
+        if (dto.title() == null || dto.title().isBlank()) {
+            throw new RuntimeException("The recipe title is required");
+        }
+        recipe.setTitle(dto.title());
+        recipe.setIngredients(dto.ingredients());
+
+        // Les anciennes etapes sont supprimees (orphanRemoval) et remplacees dans l'ordre recu
+        recipe.getSteps().clear();
+        List<StepDto> steps = dto.steps() != null ? dto.steps() : List.of();
+        steps.stream()
+                .sorted(Comparator.comparingInt(StepDto::order))
+                .forEach(stepDto -> {
+                    Step step = new Step();
+                    step.setOrder(stepDto.order());
+                    step.setInstructions(stepDto.instructions());
+                    step.setRecipes(recipe);
+                    recipe.getSteps().add(step);
+                });
+    }
+}
@@ -0,0 +1,202 @@
+package com.ninehub.authentication.service;
+
+import com.ninehub.authentication.dto.UserEmailDto;
+import com.ninehub.authentication.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter of the registered emails, so lookups for addresses which were never registered skip the database.
+ * Built at startup by reading the users table in keyset chunks, then kept current by the service on insert
+ * and by a periodic catch-up on the rows added since the last read (e.g. by another instance).
+ * The catch-up reads again a trailing window of ids before the last one seen: an AUTO_INCREMENT id is taken at
+ * insert but becomes visible at commit, so a lower id can appear after a higher one has been read.
+ * An email registered elsewhere is still missing until the next catch-up: a negative answer is only safe
+ * where a miss is caught later anyway (the unique index on insert), not to tell a user the account does not exist.
+ * A deleted email stays in the filter and only costs a confirming query; the filter is rebuilt once
+ * deletions make up a noticeable share of it.
+ * Until the first build is done every email is reported as possibly present.
+ */
+@Slf4j
+@Component
+public class RegisteredEmailFilter implements MeterBinder {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long expectedEmails;
+    private final double falsePositiveProbability;
+    private final double rebuildRatio;
+    private final long catchUpOverlap;
+    private final Pageable chunk;
+
+    private volatile ScalableBloomFilter filter;
+    // Filtre en cours de reconstruction: les nouveaux emails y sont aussi ajoutes
+    private volatile ScalableBloomFilter building;
+    private volatile boolean ready;
+    private long lastSeenId;
+
+    private final LongAdder deletions = new LongAdder();
+    private final LongAdder negatives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public RegisteredEmailFilter(UserRepository userRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${user.email-filter.expected-emails:100000}") long expectedEmails,
+                                 @Value("${user.email-filter.fpp:0.01}") double falsePositiveProbability,
+                                 @Value("${user.email-filter.rebuild-ratio:0.1}") double rebuildRatio,
+                                 @Value("${user.email-filter.chunk-size:5000}") int chunkSize,
+                                 @Value("${user.email-filter.catch-up-overlap:5000}") long catchUpOverlap) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.expectedEmails = expectedEmails;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.rebuildRatio = rebuildRatio;
+        this.catchUpOverlap = catchUpOverlap;
+        this.chunk = PageRequest.of(0, chunkSize);
+        this.filter = new ScalableBloomFilter(expectedEmails, falsePositiveProbability);
+    }
+
+    /**
+     * False means the email was not registered when the filter last caught up; true must be confirmed by a query
+     */
+    public boolean mightContain(String email) {
+        if (!ready || email == null) {
+            return true;
+        }
+        boolean present = filter.mightContain(key(email));
+        if (!present) {
+            negatives.increment();
+        }
+        return present;
+    }
+
+    public void add(String email) {
+        String key = key(email);
+        filter.put(key);
+        ScalableBloomFilter next = building;
+        if (next != null) {
+            next.put(key);
+        }
+    }
+
+    public void recordDeletion() {
+        deletions.increment();
+    }
+
+    /**
+     * Called when the database disproves a positive answer
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public synchronized void build() {
+        if (!ready) {
+            rebuild();
+            ready = true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${user.email-filter.refresh-interval:PT10S}")
+    public synchronized void refresh() {
+        if (!ready) {
+            return;
+        }
+        if (deletions.sum() > filter.approximateCount() * rebuildRatio) {
+            rebuild();
+        } else {
+            // Relire la fin de la plage deja lue: les lignes commitees apres une ligne d'id plus grand
+            lastSeenId = Math.max(lastSeenId, load(filter, Math.max(0L, lastSeenId - catchUpOverlap)));
+        }
+    }
+
+    public double expectedFalsePositiveProbability() {
+        return filter.expectedFalsePositiveProbability();
+    }
+
+    public long memoryBytes() {
+        return filter.memoryBytes();
+    }
+
+    public long approximateCount() {
+        return filter.approximateCount();
+    }
+
+    public long negativeCount() {
+        return negatives.sum();
+    }
+
+    public long falsePositiveCount() {
+        return falsePositives.sum();
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        ScalableBloomFilter next = new ScalableBloomFilter(expectedEmails, falsePositiveProbability);
+        building = next;
+        deletions.reset();
+        lastSeenId = load(next, 0L);
+        filter = next;
+        building = null;
+        log.info("Email filter built with {} emails ({} KB, expected false positive rate {}) in {} ms",
+                next.approximateCount(), next.memoryBytes() / 1024,
+                String.format(Locale.ROOT, "%.4f", next.expectedFalsePositiveProbability()),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Add the emails of the users created after the given id, and return the last id read
+     */
+    private long load(ScalableBloomFilter target, long afterId) {
+        long lastId = afterId;
+        while (true) {
+            long from = lastId;
+            List<UserEmailDto> page = readOnlyTransaction.execute(status -> userRepository.findEmailsAfter(from, chunk));
+            if (page == null || page.isEmpty()) {
+                return lastId;
+            }
+            for (UserEmailDto user : page) {
+                if (user.email() != null) {
+                    target.put(key(user.email()));
+                }
+            }
+            lastId = page.get(page.size() - 1).id();
+            if (page.size() < chunk.getPageSize()) {
+                return lastId;
+            }
+        }
+    }
+
+    private static String key(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("user.email-filter.size", this, RegisteredEmailFilter::approximateCount).register(registry);
+        Gauge.builder("user.email-filter.memory", this, RegisteredEmailFilter::memoryBytes).baseUnit("bytes").register(registry);
+        Gauge.builder("user.email-filter.fpp", this, RegisteredEmailFilter::expectedFalsePositiveProbability).register(registry);
+        FunctionCounter.builder("user.email-filter.negatives", this, RegisteredEmailFilter::negativeCount)
+                .description("Lookups answered without a query")
+                .register(registry);
+        FunctionCounter.builder("user.email-filter.false-positives", this, RegisteredEmailFilter::falsePositiveCount).register(registry);
+    }
+}
@@ -0,0 +1,75 @@
+package com.ninehub.authentication.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution per key.
+ * Concurrent calls for the same key share one execution, and calls arriving within the window after it
+ * started get the same outcome instead of running the action again. A failure is shared with the calls
+ * already waiting, but the next call runs the action again.
+ */
+public class RequestCoalescer<K, V> {
+
+    private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final long windowNanos;
+
+    public RequestCoalescer(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public V execute(K key, Supplier<V> action) {
+        long now = System.nanoTime();
+        Flight<V> candidate = new Flight<>(new CompletableFuture<>(), now);
+        Flight<V> flight = flights.compute(key, (k, current) ->
+                current != null && !current.isStale(now, windowNanos) ? current : candidate);
+
+        if (flight != candidate) {
+            try {
+                return flight.result().join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            V value = action.get();
+            candidate.result().complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            candidate.result().completeExceptionally(e);
+            flights.remove(key, candidate);
+            throw e;
+        }
+    }
+
+    /**
+     * Forget the finished execution for this key, so the next call runs the action again
+     * even within the window. An execution still running is kept: its callers wait for it.
+     */
+    public void invalidate(K key) {
+        flights.computeIfPresent(key, (k, flight) -> flight.result().isDone() ? null : flight);
+    }
+
+    /**
+     * Forget the executions whose window is over
+     */
+    public void prune() {
+        long now = System.nanoTime();
+        flights.values().removeIf(flight -> flight.isStale(now, windowNanos));
+    }
+
+    public int size() {
+        return flights.size();
+    }
+
+    private record Flight<V>(CompletableFuture<V> result, long startedAt) {
+        // Une execution en cours n'est jamais perimee, les appelants suivants l'attendent
+        boolean isStale(long now, long windowNanos) {
+            return result.isDone() && now - startedAt > windowNanos;
+        }
+    }
+}
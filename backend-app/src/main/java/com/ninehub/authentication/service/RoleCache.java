@@ -0,0 +1,54 @@
+package com.ninehub.authentication.service;
+
+import com.ninehub.authentication.entity.Role;
+import com.ninehub.authentication.entity.enums.RoleType;
+import com.ninehub.authentication.repository.RoleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The role rows never change while the service runs: they are read once and kept for the process lifetime.
+ * When several rows exist for the same type, the oldest one is used.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoleCache {
+
+    private final RoleRepository roleRepository;
+
+    private volatile Map<RoleType, Role> roles;
+
+    public Role get(RoleType roleType) {
+        Role role = load().get(roleType);
+        if (role == null) {
+            // Un role ajoute depuis le demarrage: relire une fois avant d'abandonner
+            role = reload().get(roleType);
+        }
+        if (role == null) {
+            throw new RuntimeException("Role " + roleType + " not found");
+        }
+        return role;
+    }
+
+    private Map<RoleType, Role> load() {
+        Map<RoleType, Role> current = roles;
+        return current != null ? current : reload();
+    }
+
+    private synchronized Map<RoleType, Role> reload() {
+        Map<RoleType, Role> loaded = new EnumMap<>(RoleType.class);
+        roleRepository.findAll().stream()
+                .filter(role -> role.getRoleType() != null)
+                .sorted(Comparator.comparing(Role::getId))
+                .forEach(role -> loaded.putIfAbsent(role.getRoleType(), role));
+        roles = loaded;
+        log.info("Loaded roles: {}", loaded.keySet());
+        return loaded;
+    }
+}
@@ -0,0 +1,106 @@
+package com.ninehub.authentication.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.ninehub.authentication.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL based cache of user snapshots keyed by email, used by {@link UserService#loadUserByUsername}.
+ * Callers always receive their own copy, so a cached entry is never modified in place.
+ */
+@Component
+public class UserCache implements MeterBinder {
+
+    private final Cache<String, User> cache;
+    private final LongAdder invalidations = new LongAdder();
+
+    public UserCache(@Value("${user.cache.max-size:10000}") long maxSize,
+                     @Value("${user.cache.ttl:PT5M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Return a copy of the cached user, loading it on a miss. Loader exceptions are propagated and not cached.
+     */
+    public User get(String email, Function<String, User> loader) {
+        return copyOf(cache.get(key(email), loader));
+    }
+
+    /**
+     * Drop the entry of this email. Inside a transaction the entry is dropped again after commit,
+     * so a concurrent reader cannot put back the row as it was before the commit.
+     */
+    public void evict(String email) {
+        if (email == null) {
+            return;
+        }
+        String key = key(email);
+        cache.invalidate(key);
+        invalidations.increment();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(key);
+                }
+            });
+        }
+    }
+
+    /**
+     * Hit, miss, load and size based eviction counters
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Number of explicit evictions requested by {@link UserService}
+     */
+    public long invalidationCount() {
+        return invalidations.sum();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "users");
+    }
+
+    // MySQL compare les emails sans tenir compte de la casse, le cache doit faire de meme
+    private static String key(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static User copyOf(User user) {
+        return User.builder()
+                .id(user.getId())
+                .firstName(user.getFirstName())
+                .email(user.getEmail())
+                .password(user.getPassword())
+                .isActif(user.isActif())
+                .role(user.getRole())
+                .build();
+    }
+}
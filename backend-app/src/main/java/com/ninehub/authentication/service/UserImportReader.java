@@ -0,0 +1,152 @@
+package com.ninehub.authentication.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ninehub.authentication.dto.ImportUserRecord;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads a bulk import file one line at a time, so the file is never held in memory.
+ * CSV files start with a header naming the columns ({@code email}, {@code firstName}, {@code password}, in any order);
+ * NDJSON files hold one JSON object per line. A malformed line is returned as an error, it does not stop the import.
+ */
+public class UserImportReader implements Closeable {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    /**
+     * A record, or the reason why its line could not be read
+     */
+    public record Line(long number, ImportUserRecord record, String error) {
+    }
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectMapper objectMapper;
+    private Map<String, Integer> columns;
+    private long lineNumber;
+
+    public UserImportReader(InputStream in, Format format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Next non blank line of the file, null at the end
+     */
+    public Line next() {
+        try {
+            String text;
+            do {
+                text = reader.readLine();
+                lineNumber++;
+                if (text == null) {
+                    return null;
+                }
+            } while (text.isBlank());
+
+            if (format == Format.NDJSON) {
+                return parseJson(text);
+            }
+            if (columns == null) {
+                readHeader(text);
+                return next();
+            }
+            return parseCsv(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Line parseJson(String text) {
+        try {
+            return new Line(lineNumber, objectMapper.readValue(text, ImportUserRecord.class), null);
+        } catch (JsonProcessingException e) {
+            return new Line(lineNumber, null, "malformed JSON");
+        }
+    }
+
+    private void readHeader(String text) {
+        List<String> names = splitCsv(text);
+        columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("email") || !columns.containsKey("password")) {
+            throw new RuntimeException("The CSV header must name at least the email and password columns");
+        }
+    }
+
+    private Line parseCsv(String text) {
+        List<String> values = splitCsv(text);
+        if (values == null) {
+            return new Line(lineNumber, null, "unterminated quote");
+        }
+        return new Line(lineNumber, new ImportUserRecord(
+                column(values, "email"),
+                column(values, "firstname"),
+                column(values, "password")
+        ), null);
+    }
+
+    private String column(List<String> values, String name) {
+        Integer index = columns.get(name);
+        return index != null && index < values.size() ? values.get(index) : null;
+    }
+
+    /**
+     * Split one CSV line, with double quoted values and "" as an escaped quote.
+     * Values spanning several lines are not supported; null is returned for an unterminated quote.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
@@ -0,0 +1,401 @@
+package com.ninehub.authentication.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ninehub.authentication.dto.ImportReport;
+import com.ninehub.authentication.dto.ImportUserRecord;
+import com.ninehub.authentication.entity.ImportCheckpoint;
+import com.ninehub.authentication.entity.enums.ImportStatus;
+import com.ninehub.authentication.entity.enums.RoleType;
+import com.ninehub.authentication.repository.ImportCheckpointRepository;
+import com.ninehub.authentication.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Savepoint;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk import of accounts from a legacy store, streamed from a CSV or NDJSON body.
+ * Records are handled in chunks: validated, deduplicated within the chunk and against the existing emails,
+ * their passwords hashed in parallel unless already hashed, then inserted by one multi-row statement.
+ * When that statement hits a constraint, every email of the chunk is checked again against the table and the rows
+ * are inserted one by one, so only the rows the database refuses are rejected and the job can always finish.
+ * The checkpoint of the job is updated in the same transaction as each chunk, so an interrupted import
+ * is resumed by sending the same file again with the same job id.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    private static final int MAX_ERRORS = 20;
+    // Taille des colonnes varchar de la table users
+    private static final int MAX_LENGTH = 255;
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+    private static final Pattern JOB_ID = Pattern.compile("^[A-Za-z0-9._-]{1,64}$");
+
+    private final UserRepository userRepository;
+    private final ImportCheckpointRepository checkpointRepository;
+    private final RoleCache roleCache;
+    private final RegisteredEmailFilter registeredEmails;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final BCryptPasswordEncoder hasher;
+    private final ExecutorService hashPool;
+    private final int chunkSize;
+
+    // Imports en cours sur cette instance: un job ne peut pas tourner deux fois en parallele
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public UserImportService(UserRepository userRepository,
+                             ImportCheckpointRepository checkpointRepository,
+                             RoleCache roleCache,
+                             RegisteredEmailFilter registeredEmails,
+                             JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             @Value("${security.bcrypt.strength:10}") int strength,
+                             @Value("${user.import.hash-threads:0}") int hashThreads,
+                             @Value("${user.import.chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.roleCache = roleCache;
+        this.registeredEmails = registeredEmails;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        // Pool distinct de celui des connexions: un import ne doit pas faire attendre les logins
+        this.hasher = new BCryptPasswordEncoder(strength);
+        int threads = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.hashPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hash");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Import the accounts of the file, starting after the last committed record of this job
+     * @param passwordsHashed true when the file holds BCrypt hashes instead of plain passwords
+     * @param active whether the imported accounts can log in without an activation code
+     */
+    public ImportReport importUsers(String jobId, InputStream in, UserImportReader.Format format,
+                                    boolean passwordsHashed, boolean active) throws IOException {
+        if (jobId == null || !JOB_ID.matcher(jobId).matches()) {
+            throw new RuntimeException("Invalid import job id");
+        }
+        if (!running.add(jobId)) {
+            throw new RuntimeException("Import " + jobId + " is already running");
+        }
+        try (UserImportReader reader = new UserImportReader(in, format, objectMapper)) {
+            ImportCheckpoint checkpoint = checkpointRepository.findById(jobId).orElseGet(() -> newCheckpoint(jobId));
+            if (checkpoint.getStatus() == ImportStatus.COMPLETED) {
+                return ImportReport.from(checkpoint, List.of());
+            }
+            return run(checkpoint, reader, passwordsHashed, active);
+        } finally {
+            running.remove(jobId);
+        }
+    }
+
+    /**
+     * Last committed progress of a job
+     */
+    public ImportReport progress(String jobId) {
+        return checkpointRepository.findById(jobId)
+                .map(checkpoint -> ImportReport.from(checkpoint, List.of()))
+                .orElseThrow(() -> new RuntimeException("Unknown import job: " + jobId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdownNow();
+    }
+
+    private ImportReport run(ImportCheckpoint checkpoint, UserImportReader reader, boolean passwordsHashed, boolean active) {
+        List<String> errors = new ArrayList<>();
+        long roleId = roleCache.get(RoleType.USER).getId();
+        long start = System.nanoTime();
+        checkpoint.setStatus(ImportStatus.RUNNING);
+        try {
+            // Reprise: les enregistrements deja valides par un commit sont relus mais pas traites
+            long skip = checkpoint.getProcessed();
+            UserImportReader.Line line = reader.next();
+            for (long i = 0; i < skip && line != null; i++) {
+                line = reader.next();
+            }
+
+            List<UserImportReader.Line> chunk = new ArrayList<>(chunkSize);
+            while (line != null) {
+                chunk.add(line);
+                if (chunk.size() == chunkSize) {
+                    checkpoint = importChunk(checkpoint, chunk, passwordsHashed, active, roleId, errors);
+                    chunk.clear();
+                }
+                line = reader.next();
+            }
+            if (!chunk.isEmpty()) {
+                checkpoint = importChunk(checkpoint, chunk, passwordsHashed, active, roleId, errors);
+            }
+
+            checkpoint.setStatus(ImportStatus.COMPLETED);
+            saveCheckpoint(checkpoint);
+        } catch (RuntimeException e) {
+            checkpoint.setStatus(ImportStatus.FAILED);
+            saveCheckpoint(checkpoint);
+            log.error("Import {} stopped after {} records: {}", checkpoint.getJobId(), checkpoint.getProcessed(), e.getMessage());
+            throw e;
+        }
+        log.info("Import {} completed: {} imported, {} duplicates, {} rejected in {} ms", checkpoint.getJobId(),
+                checkpoint.getImported(), checkpoint.getDuplicates(), checkpoint.getRejected(),
+                (System.nanoTime() - start) / 1_000_000);
+        return ImportReport.from(checkpoint, errors);
+    }
+
+    /**
+     * Import one chunk and commit it with the checkpoint
+     * @return the checkpoint as committed
+     */
+    private ImportCheckpoint importChunk(ImportCheckpoint checkpoint, List<UserImportReader.Line> chunk,
+                                         boolean passwordsHashed, boolean active, long roleId, List<String> errors) {
+        // Validation et dedoublonnage dans le chunk, en gardant la premiere occurrence de chaque email
+        Map<String, UserImportReader.Line> accepted = new LinkedHashMap<>();
+        long rejected = 0;
+        long duplicates = 0;
+        for (UserImportReader.Line line : chunk) {
+            String error = line.error() != null ? line.error() : validate(line.record(), passwordsHashed);
+            if (error != null) {
+                rejected++;
+                addError(errors, line, error);
+            } else if (accepted.putIfAbsent(key(line.record()), line) != null) {
+                duplicates++;
+            }
+        }
+
+        duplicates += removeExisting(accepted, false);
+        Map<String, String> hashes = hash(accepted, passwordsHashed);
+
+        ImportCheckpoint next;
+        try {
+            next = commitChunk(checkpoint, chunk.size(), accepted, hashes, duplicates, rejected, active, roleId);
+        } catch (DataIntegrityViolationException e) {
+            // Le filtre ignore les emails enregistres ailleurs depuis son dernier rattrapage: cette fois tout est verifie,
+            // puis les lignes sont inserees une a une pour ne rejeter que celles que la base refuse
+            duplicates += removeExisting(accepted, true);
+            next = commitRowByRow(checkpoint, chunk.size(), accepted, hashes, duplicates, rejected, active, roleId, errors);
+        }
+        accepted.values().forEach(line -> registeredEmails.add(line.record().email().trim()));
+        return next;
+    }
+
+    /**
+     * Insert the accounts and save the advanced checkpoint in one transaction.
+     * The checkpoint passed in is left untouched, so a failed attempt can be retried from it.
+     */
+    private ImportCheckpoint commitChunk(ImportCheckpoint checkpoint, int processed, Map<String, UserImportReader.Line> accepted,
+                                         Map<String, String> hashes, long duplicates, long rejected,
+                                         boolean active, long roleId) {
+        ImportCheckpoint next = advance(checkpoint, processed, accepted.size(), duplicates, rejected);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!accepted.isEmpty()) {
+                insert(accepted, hashes, active, roleId);
+            }
+            checkpointRepository.save(next);
+        });
+        return next;
+    }
+
+    /**
+     * Insert the accounts one by one, each under its own savepoint, and save the checkpoint in the same transaction.
+     * The rows refused by a constraint are removed from the accepted ones and counted as duplicates
+     * (unique email) or rejected (anything else).
+     */
+    private ImportCheckpoint commitRowByRow(ImportCheckpoint checkpoint, int processed, Map<String, UserImportReader.Line> accepted,
+                                            Map<String, String> hashes, long duplicates, long rejected,
+                                            boolean active, long roleId, List<String> errors) {
+        return transactionTemplate.execute(status -> {
+            long rowDuplicates = 0;
+            long rowRejected = 0;
+            Iterator<Map.Entry<String, UserImportReader.Line>> iterator = accepted.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, UserImportReader.Line> entry = iterator.next();
+                try {
+                    insertRow(entry, hashes, active, roleId);
+                } catch (DataIntegrityViolationException e) {
+                    iterator.remove();
+                    if (UserService.violatesEmailIndex(e)) {
+                        rowDuplicates++;
+                    } else {
+                        rowRejected++;
+                        addError(errors, entry.getValue(), "refused by the database");
+                    }
+                }
+            }
+            ImportCheckpoint next = advance(checkpoint, processed, accepted.size(),
+                    duplicates + rowDuplicates, rejected + rowRejected);
+            checkpointRepository.save(next);
+            return next;
+        });
+    }
+
+    /**
+     * Insert one account under a savepoint of the current transaction, rolled back if the row is refused.
+     * Savepoints are taken on the JDBC connection: the JPA transaction manager does not offer nested transactions.
+     */
+    private void insertRow(Map.Entry<String, UserImportReader.Line> entry, Map<String, String> hashes,
+                           boolean active, long roleId) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try {
+                insert(Map.of(entry.getKey(), entry.getValue()), hashes, active, roleId);
+            } catch (DataIntegrityViolationException e) {
+                connection.rollback(savepoint);
+                throw e;
+            }
+            connection.releaseSavepoint(savepoint);
+            return null;
+        });
+    }
+
+    private static ImportCheckpoint advance(ImportCheckpoint checkpoint, int processed, int imported,
+                                            long duplicates, long rejected) {
+        return new ImportCheckpoint(
+                checkpoint.getJobId(),
+                checkpoint.getStatus(),
+                checkpoint.getProcessed() + processed,
+                checkpoint.getImported() + imported,
+                checkpoint.getDuplicates() + duplicates,
+                checkpoint.getRejected() + rejected,
+                checkpoint.getStartedAt(),
+                Instant.now()
+        );
+    }
+
+    /**
+     * Remove the emails already registered, with one query for the whole chunk
+     * @param all query every email, not only those the filter reports as possibly registered
+     * @return the number of emails removed
+     */
+    private int removeExisting(Map<String, UserImportReader.Line> accepted, boolean all) {
+        List<String> candidates = accepted.keySet().stream()
+                .filter(email -> all || registeredEmails.mightContain(email))
+                .toList();
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        Set<String> existing = new HashSet<>();
+        userRepository.findExistingEmails(candidates).forEach(email -> existing.add(email.toLowerCase(Locale.ROOT)));
+        int before = accepted.size();
+        accepted.keySet().removeAll(existing);
+        return before - accepted.size();
+    }
+
+    /**
+     * BCrypt hash of every password by email, computed on the import pool
+     */
+    private Map<String, String> hash(Map<String, UserImportReader.Line> accepted, boolean passwordsHashed) {
+        Map<String, String> hashes = new HashMap<>();
+        if (passwordsHashed) {
+            accepted.forEach((key, line) -> hashes.put(key, line.record().password()));
+            return hashes;
+        }
+        Map<String, Future<String>> futures = new LinkedHashMap<>();
+        accepted.forEach((key, line) -> futures.put(key, hashPool.submit(() -> hasher.encode(line.record().password()))));
+        try {
+            for (Map.Entry<String, Future<String>> entry : futures.entrySet()) {
+                hashes.put(entry.getKey(), entry.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.values().forEach(future -> future.cancel(true));
+            throw new RuntimeException("Import interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+        return hashes;
+    }
+
+    /**
+     * One INSERT with a row per account; ids are still assigned by the auto increment column
+     */
+    private void insert(Map<String, UserImportReader.Line> accepted, Map<String, String> hashes, boolean active, long roleId) {
+        StringBuilder sql = new StringBuilder("INSERT INTO users (first_name, email, password, is_actif, role_id) VALUES ");
+        sql.append(String.join(", ", Collections.nCopies(accepted.size(), "(?, ?, ?, ?, ?)")));
+        Object[] args = new Object[accepted.size() * 5];
+        int i = 0;
+        for (Map.Entry<String, UserImportReader.Line> entry : accepted.entrySet()) {
+            ImportUserRecord record = entry.getValue().record();
+            args[i++] = record.firstName();
+            args[i++] = record.email().trim();
+            args[i++] = hashes.get(entry.getKey());
+            args[i++] = active;
+            args[i++] = roleId;
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+
+    private static String validate(ImportUserRecord record, boolean passwordsHashed) {
+        if (record.email() == null || !UserService.isValidEmail(record.email().trim())) {
+            return "invalid email";
+        }
+        if (record.email().trim().length() > MAX_LENGTH) {
+            return "email longer than " + MAX_LENGTH + " characters";
+        }
+        if (record.firstName() != null && record.firstName().length() > MAX_LENGTH) {
+            return "first name longer than " + MAX_LENGTH + " characters";
+        }
+        if (record.password() == null || record.password().isBlank()) {
+            return "missing password";
+        }
+        if (passwordsHashed && !BCRYPT_HASH.matcher(record.password()).matches()) {
+            return "password is not a BCrypt hash";
+        }
+        return null;
+    }
+
+    private static void addError(List<String> errors, UserImportReader.Line line, String error) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add("line " + line.number() + ": " + error);
+        }
+    }
+
+    private static String key(ImportUserRecord record) {
+        return record.email().trim().toLowerCase(Locale.ROOT);
+    }
+
+    private ImportCheckpoint newCheckpoint(String jobId) {
+        Instant now = Instant.now();
+        return new ImportCheckpoint(jobId, ImportStatus.RUNNING, 0, 0, 0, 0, now, now);
+    }
+
+    private void saveCheckpoint(ImportCheckpoint checkpoint) {
+        checkpoint.setUpdatedAt(Instant.now());
+        transactionTemplate.executeWithoutResult(status -> checkpointRepository.save(checkpoint));
+    }
+}
@@ -1,43 +1,57 @@
 package com.ninehub.authentication.service;
 
 import com.ninehub.authentication.dto.RegisterDto;
+import com.ninehub.authentication.dto.UserSummaryDto;
 import com.ninehub.authentication.entity.*;
+import com.ninehub.authentication.entity.enums.CodePurpose;
 import com.ninehub.authentication.entity.enums.RoleType;
-import com.ninehub.authentication.repository.RoleRepository;
 import com.ninehub.authentication.repository.UserRepository;
-import com.ninehub.authentication.repository.ValidationRepository;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 @Slf4j
 @Service
 @AllArgsConstructor
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
     private UserRepository userRepository;
-    private RoleRepository roleRepository;
-    private ValidationRepository validationRepository;
-    private BCryptPasswordEncoder passwordEncoder;
+    private RoleCache roleCache;
+    private PasswordEncoder passwordEncoder;
     private ValidationService validationService;
     private NotificationService notificationService;
+    private UserCache userCache;
+    private RegisteredEmailFilter registeredEmails;
+
+    // Nom de l'index unique sur l'email (003-unique-user-email.sql)
+    private static final String EMAIL_INDEX = "ux_users_email";
 
     private static final Pattern EMAIL_REGEX = Pattern.compile(
             "^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$"
     );
 
+    public static boolean isValidEmail(String email) {
+        return EMAIL_REGEX.matcher(email).matches();
+    }
+
     /**
      * NEW METHOD: Register user with RegisterDto (INACTIVE by default)
+     * A duplicate email is reported as a {@link DuplicateKeyException}: known emails are rejected before the password
+     * is hashed, and the unique index catches the rest on insert
      */
     public User inscription(RegisterDto registerDto) {
         // Validate email format
@@ -45,17 +59,16 @@ public class UserService implements UserDetailsService {
             throw new RuntimeException("Invalid email format");
         }
 
-        // Check if email already exists
-        if (userRepository.findByEmail(registerDto.getEmail()).isPresent()) {
-            throw new RuntimeException("This email already exists");
+        // Doublon connu: repondre avant le hachage BCrypt, qui occupe un thread du pool borne
+        if (this.existsByEmail(registerDto.getEmail())) {
+            throw new DuplicateKeyException("This email already exists");
         }
 
         // Encode password
         String encodedPassword = passwordEncoder.encode(registerDto.getPassword());
 
-        // Get USER role from database
-        Role userRole = roleRepository.findByRoleType(RoleType.USER)
-                .orElseThrow(() -> new RuntimeException("Role USER not found"));
+        // USER role, read once for the process lifetime
+        Role userRole = roleCache.get(RoleType.USER);
 
         // Create user (NOT ACTIVE until email verification)
         User user = User.builder()
@@ -66,51 +79,77 @@ public class UserService implements UserDetailsService {
                 .isActif(false)  // IMPORTANT: User must verify email first
                 .build();
 
-        user = userRepository.save(user);
+        user = this.insert(user);
+        userCache.evict(user.getEmail());
+        registeredEmails.add(user.getEmail());
         log.info("User created (inactive): {}", user.getEmail());
 
         return user;
     }
 
     /**
-     * NEW METHOD: Send activation code to user's email
+     * Send a new activation code to the account of this email, if there is one and it is not active yet.
+     * Nothing tells the caller which case applied, so the answer cannot be used to find registered emails.
      */
     public void activateAccountRequest(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // Pas de raccourci par le filtre: un compte cree sur une autre instance peut ne pas y etre encore
+        userRepository.findByEmail(email)
+                .filter(user -> !user.isEnabled())
+                .ifPresentOrElse(this::activateAccountRequest,
+                        () -> log.info("No inactive account for {}, no activation code sent", email));
+    }
 
+    /**
+     * Send activation code to a user already loaded, e.g. the one just created by {@link #inscription}
+     */
+    public void activateAccountRequest(User user) {
         // Generate and save validation code
-        validationService.saveValidation(user);
+        validationService.saveValidation(user, CodePurpose.ACTIVATION);
 
-        log.info("Activation code sent to: {}", email);
+        log.info("Activation code sent to: {}", user.getEmail());
     }
 
     /**
-     * UPDATED METHOD: Activate account with email and code
+     * Insert a new user, relying on the unique index on email for the duplicates registered concurrently.
+     * Other integrity violations (null or too long column, foreign key) are rethrown as they are.
      */
-    @Transactional
-    public void activateAccount(String email, String code) {
-        // Find validation record by code
-        Validation validation = validationRepository.findByCode(code)
-                .orElseThrow(() -> new RuntimeException("Invalid activation code"));
-
-        // Verify code matches the email
-        if (!validation.getUser().getEmail().equals(email)) {
-            throw new RuntimeException("Invalid activation code for this email");
+    private User insert(User user) {
+        try {
+            return userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            if (violatesEmailIndex(e)) {
+                throw new DuplicateKeyException("This email already exists", e);
+            }
+            throw e;
         }
+    }
 
-        // Check if code is expired
-        if (Instant.now().isAfter(validation.getExpiration())) {
-            throw new RuntimeException("Activation code has expired. Please request a new one.");
+    /**
+     * Whether the violation comes from the unique index on users.email, found by its name in the cause chain
+     */
+    static boolean violatesEmailIndex(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String name = cause instanceof ConstraintViolationException violation ? violation.getConstraintName() : cause.getMessage();
+            if (name != null && name.toLowerCase(Locale.ROOT).contains(EMAIL_INDEX)) {
+                return true;
+            }
         }
+        return false;
+    }
+
+    /**
+     * UPDATED METHOD: Activate account with email and code
+     * The code is checked against the one issued for this email, codes of other users can never match
+     */
+    public void activateAccount(String email, String code) {
+        Long userId = validationService.verify(email, CodePurpose.ACTIVATION, code);
 
         // Activate the user
-        User user = validation.getUser();
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("Unknown user"));
         user.setActif(true);
         userRepository.save(user);
-
-        // Delete validation record after successful activation
-        validationRepository.delete(validation);
+        userCache.evict(user.getEmail());
 
         log.info("User {} activated successfully", email);
     }
@@ -119,22 +158,22 @@ public class UserService implements UserDetailsService {
      * OLD METHOD: Keep for backward compatibility (if used elsewhere)
      */
     public void activateAccount(Map<String, String> activation) {
-        Validation validation = this.validationService.readWithTheCode(activation.get("code"));
-        if (Instant.now().isAfter(validation.getExpiredAt())) {
-            throw new RuntimeException("Your code has expired");
-        }
-        User userActivated = this.userRepository.findById(validation.getUser().getId())
-                .orElseThrow(() -> new RuntimeException("Unknown user"));
-
-        userActivated.setActif(true);
-        this.userRepository.save(userActivated);
+        this.activateAccount(activation.get("email"), activation.get("code"));
     }
 
     /**
      * NEW METHOD: Check if email already exists
      */
     public boolean existsByEmail(String email) {
-        return userRepository.findByEmail(email).isPresent();
+        // Un email jamais enregistre ne coute pas de requete
+        if (!registeredEmails.mightContain(email)) {
+            return false;
+        }
+        boolean exists = userRepository.existsByEmail(email);
+        if (!exists) {
+            registeredEmails.recordFalsePositive();
+        }
+        return exists;
     }
 
     /**
@@ -144,32 +183,30 @@ public class UserService implements UserDetailsService {
         if (!EMAIL_REGEX.matcher(user.getEmail()).matches()) {
             throw new RuntimeException("Invalid email format");
         }
-
-        // Check if user exists
-        Optional<User> optionalUser = this.userRepository.findByEmail(user.getEmail());
-        if (optionalUser.isPresent()) {
-            throw new RuntimeException("This email already exists");
+        if (this.existsByEmail(user.getEmail())) {
+            throw new DuplicateKeyException("This email already exists");
         }
 
         String cryptedPassword = this.passwordEncoder.encode(user.getPassword());
         user.setPassword(cryptedPassword);
 
-        // Create role
-        Role userRole = new Role();
-        userRole.setRoleType(RoleType.USER);
+        // Role rows are shared, never created per user
+        RoleType roleType = RoleType.USER;
 
         if (user.getRole() != null && user.getRole().getRoleType().equals(RoleType.ADMIN)) {
-            userRole.setRoleType(RoleType.ADMIN);
+            roleType = RoleType.ADMIN;
             // If admin, auto-activate account
             user.setActif(true);
         }
 
-        user.setRole(userRole);
-        user = this.userRepository.save(user);
+        user.setRole(roleCache.get(roleType));
+        user = this.insert(user);
+        this.userCache.evict(user.getEmail());
+        this.registeredEmails.add(user.getEmail());
 
         // Send validation code for regular users
         if (user.getRole() != null && user.getRole().getRoleType().equals(RoleType.USER)) {
-            this.validationService.saveValidation(user);
+            this.validationService.saveValidation(user, CodePurpose.ACTIVATION);
         }
 
         return user;
@@ -184,6 +221,8 @@ public class UserService implements UserDetailsService {
         }
 
         userRepository.deleteById(userId);
+        userCache.evict(user.getEmail());
+        registeredEmails.recordDeletion();
         log.info("User deleted: {}", userId);
     }
 
@@ -196,40 +235,70 @@ public class UserService implements UserDetailsService {
 
         user.setActif(true);
         userRepository.save(user);
+        userCache.evict(user.getEmail());
         log.info("User activated by admin: {}", userId);
     }
 
     @Override
     public User loadUserByUsername(String username) throws UsernameNotFoundException {
-        return this.userRepository.findByEmail(username)
+        return this.userCache.get(username, email -> this.userRepository.findByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("No user found with this email")));
+    }
+
+    /**
+     * Called after a successful login when the stored hash uses an outdated cost factor
+     */
+    @Override
+    public User updatePassword(UserDetails userDetails, String newPassword) {
+        User user = this.userRepository.findByEmail(userDetails.getUsername())
                 .orElseThrow(() -> new UsernameNotFoundException("No user found with this email"));
+        user.setPassword(newPassword);
+        user = this.userRepository.save(user);
+        this.userCache.evict(user.getEmail());
+        log.info("Password hash upgraded for user: {}", user.getEmail());
+        return user;
     }
 
     public void modifyPassword(Map<String, String> parameters) {
         User user = this.loadUserByUsername(parameters.get("email"));
-        this.validationService.saveValidation(user);
+        this.validationService.saveValidation(user, CodePurpose.PASSWORD_RESET);
     }
 
     public void newPassword(Map<String, String> parameters) {
         try {
             User user = this.loadUserByUsername(parameters.get("email"));
-            Validation validation = this.validationService.readWithTheCode(parameters.get("code"));
-            if (validation.getUser().getEmail().equals(user.getEmail())) {
-                String cryptedPassword = this.passwordEncoder.encode(parameters.get("password"));
-                user.setPassword(cryptedPassword);
-                this.userRepository.save(user);
-            }
+            this.validationService.verify(user.getEmail(), CodePurpose.PASSWORD_RESET, parameters.get("code"));
+            String cryptedPassword = this.passwordEncoder.encode(parameters.get("password"));
+            user.setPassword(cryptedPassword);
+            this.userRepository.save(user);
+            this.userCache.evict(user.getEmail());
         } catch (UsernameNotFoundException e) {
             throw new RuntimeException(e);
         }
     }
 
-    public List<User> getAllUser() {
-        final Iterable<User> userIterable = userRepository.findAll();
-        List<User> userList = new ArrayList<>();
-        for (User user : userIterable) {
-            userList.add(user);
+    /**
+     * One keyset page of users, ordered by id
+     * @param afterId id of the last user of the previous page, 0 for the first page
+     */
+    public List<UserSummaryDto> listUsers(long afterId, int limit, Boolean active, RoleType roleType) {
+        return userRepository.findSummariesAfter(afterId, active, roleType, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Hand every matching user to the consumer, reading the table page by page so memory stays flat
+     */
+    public long exportUsers(Boolean active, RoleType roleType, int chunkSize, Consumer<UserSummaryDto> consumer) {
+        long afterId = 0;
+        long count = 0;
+        while (true) {
+            List<UserSummaryDto> page = this.listUsers(afterId, chunkSize, active, roleType);
+            page.forEach(consumer);
+            count += page.size();
+            if (page.size() < chunkSize) {
+                return count;
+            }
+            afterId = page.get(page.size() - 1).id();
         }
-        return userList;
     }
-}
\ No newline at end of file
+}
@@ -1,39 +1,49 @@
 package com.ninehub.authentication.service;
 
 import com.ninehub.authentication.entity.User;
-import com.ninehub.authentication.entity.Validation;
-import com.ninehub.authentication.repository.ValidationRepository;
-import lombok.AllArgsConstructor;
+import com.ninehub.authentication.entity.enums.CodePurpose;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.Random;
+import java.time.Duration;
 
 @Slf4j
 @Service
-@AllArgsConstructor
 public class ValidationService {
 
-    private ValidationRepository validationRepository;
-    private NotificationService notificationService;
+    private final VerificationCodeStore codeStore;
+    private final NotificationService notificationService;
 
-    @Transactional
-    public void saveValidation(User user) {
-        // Generate random 6-digit code
-        String code = String.format("%06d", new Random().nextInt(999999));
+    // Duplicate requests for the same email and purpose within the window share one code and one email
+    private final RequestCoalescer<String, String> codeRequests;
 
-        // Create validation entity
-        Validation validation = new Validation();
-        validation.setUser(user);
-        validation.setCode(code);
-        validation.setCreatedAt(Instant.now());
-        validation.setExpiredAt(Instant.now().plus(15, ChronoUnit.MINUTES));
+    public ValidationService(VerificationCodeStore codeStore,
+                             NotificationService notificationService,
+                             @Value("${validation.coalesce-window:PT30S}") Duration coalesceWindow) {
+        this.codeStore = codeStore;
+        this.notificationService = notificationService;
+        this.codeRequests = new RequestCoalescer<>(coalesceWindow);
+        // Un code consomme ou invalide ne doit plus etre "renvoye" aux demandes suivantes de la fenetre
+        codeStore.onRemoval((email, purpose) -> codeRequests.invalidate(requestKey(email, purpose)));
+    }
+
+    /**
+     * Generate a code for the user and send it by email.
+     * Concurrent and repeated calls for the same email and purpose within the coalescing window get the same code,
+     * as long as that code has not been consumed or invalidated.
+     */
+    public void saveValidation(User user, CodePurpose purpose) {
+        codeRequests.execute(requestKey(user.getEmail(), purpose), () -> createValidation(user, purpose));
+    }
 
-        // Save to database
-        validationRepository.save(validation);
+    private static String requestKey(String email, CodePurpose purpose) {
+        return purpose + ":" + VerificationCodeStore.key(email);
+    }
+
+    private String createValidation(User user, CodePurpose purpose) {
+        String code = codeStore.issue(user, purpose);
 
         // Send activation email
         notificationService.sendActivationEmail(
@@ -42,11 +52,20 @@ public class ValidationService {
                 code
         );
 
-        log.info("Activation code generated and sent to: {}", user.getEmail());
+        log.info("{} code generated and sent to: {}", purpose, user.getEmail());
+        return code;
+    }
+
+    @Scheduled(fixedDelayString = "${validation.coalesce-window:PT30S}")
+    public void pruneCodeRequests() {
+        codeRequests.prune();
     }
 
-    public Validation readWithTheCode(String code) {
-        return validationRepository.findByCode(code)
-                .orElseThrow(() -> new RuntimeException("Invalid or expired code"));
+    /**
+     * Check a code sent to this email and consume it
+     * @return the id of the user the code belongs to
+     */
+    public Long verify(String email, CodePurpose purpose, String code) {
+        return codeStore.consume(email, purpose, code);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,232 @@
+package com.ninehub.authentication.service;
+
+import com.ninehub.authentication.dto.VerificationCodeDto;
+import com.ninehub.authentication.entity.User;
+import com.ninehub.authentication.entity.Validation;
+import com.ninehub.authentication.entity.enums.CodePurpose;
+import com.ninehub.authentication.repository.ValidationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Verification codes, one per (email, purpose), so two users can hold the same digits without any confusion.
+ * <p>
+ * With write-through enabled the validation table is the authority, which makes the store safe with several
+ * instances: a code is accepted only if its row still exists, consuming it is a conditional delete that a single
+ * caller wins, and wrong guesses are counted in the row so the limit holds across instances.
+ * <p>
+ * Without write-through the codes are kept in memory only, where checking one is a single map lookup and
+ * expiry is driven by a {@link HashedTimingWheel}. Codes are then lost on restart and not seen by the other
+ * instances: for a single instance only.
+ */
+@Component
+public class VerificationCodeStore {
+
+    private final ValidationRepository validationRepository;
+    private final Duration ttl;
+    private final int maxAttempts;
+    private final boolean writeThrough;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<CodeKey, PendingCode> codes = new ConcurrentHashMap<>();
+    private final HashedTimingWheel<CodeKey> expiries;
+
+    // Prevenu quand un code est consomme ou invalide, avec l'email normalise
+    private volatile BiConsumer<String, CodePurpose> removalListener = (email, purpose) -> { };
+
+    public VerificationCodeStore(ValidationRepository validationRepository,
+                                 @Value("${verification.code.ttl:PT15M}") Duration ttl,
+                                 @Value("${verification.code.max-attempts:5}") int maxAttempts,
+                                 @Value("${verification.code.write-through:true}") boolean writeThrough,
+                                 @Value("${verification.code.tick:PT1S}") Duration tick) {
+        this.validationRepository = validationRepository;
+        this.ttl = ttl;
+        this.maxAttempts = maxAttempts;
+        this.writeThrough = writeThrough;
+        // Un tour de roue couvre la duree de vie d'un code
+        this.expiries = new HashedTimingWheel<>(tick, (int) (ttl.toMillis() / Math.max(1, tick.toMillis())) + 1, System.currentTimeMillis());
+    }
+
+    /**
+     * Called with the normalized email and the purpose each time a code is consumed, expires on a check,
+     * or is dropped after too many attempts
+     */
+    public void onRemoval(BiConsumer<String, CodePurpose> listener) {
+        this.removalListener = listener;
+    }
+
+    /**
+     * Create a code for the user, replacing any previous code with the same purpose
+     */
+    public String issue(User user, CodePurpose purpose) {
+        String code = String.format("%06d", random.nextInt(1_000_000));
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(ttl);
+
+        if (writeThrough) {
+            validationRepository.deleteByUserAndPurpose(user.getId(), purpose);
+            Validation validation = new Validation();
+            validation.setUser(user);
+            validation.setCode(code);
+            validation.setPurpose(purpose);
+            validation.setCreatedAt(now);
+            validation.setExpiredAt(expiresAt);
+            validationRepository.save(validation);
+        } else {
+            put(new CodeKey(key(user.getEmail()), purpose), new PendingCode(user.getId(), code, expiresAt));
+        }
+        return code;
+    }
+
+    /**
+     * Check the code and, when it matches, remove it so it cannot be used twice.
+     * @return the id of the user the code was issued to
+     */
+    public Long consume(String email, CodePurpose purpose, String code) {
+        if (email == null || code == null) {
+            throw new RuntimeException("Invalid code");
+        }
+        CodeKey codeKey = new CodeKey(key(email), purpose);
+        return writeThrough ? consumeStored(codeKey, email, code) : consumeInMemory(codeKey, code);
+    }
+
+    /**
+     * Number of codes held in memory (always 0 with write-through)
+     */
+    public int size() {
+        return codes.size();
+    }
+
+    @Scheduled(fixedDelayString = "${verification.code.tick:PT1S}")
+    public void expire() {
+        expiries.advance(System.currentTimeMillis(), (codeKey, deadline) ->
+                // Ne retirer que le code pour lequel l'echeance a ete programmee, pas un code plus recent
+                codes.computeIfPresent(codeKey, (k, pending) -> pending.expiresAt().toEpochMilli() == deadline ? null : pending));
+    }
+
+    private void put(CodeKey codeKey, PendingCode pending) {
+        codes.put(codeKey, pending);
+        expiries.schedule(codeKey, pending.expiresAt().toEpochMilli());
+    }
+
+    /**
+     * Check a code against its row: every step is a statement on the row, so concurrent calls on any
+     * instance see the same code, the same attempt count, and only one of them consumes it
+     */
+    private Long consumeStored(CodeKey codeKey, String email, String code) {
+        VerificationCodeDto stored = validationRepository.findCode(email, codeKey.purpose())
+                .orElseThrow(() -> new RuntimeException("Invalid or expired code"));
+        if (!Instant.now().isBefore(stored.expiresAt())) {
+            if (validationRepository.deleteCode(stored.id()) > 0) {
+                removed(codeKey);
+            }
+            throw new RuntimeException("Your code has expired. Please request a new one.");
+        }
+
+        if (!matches(stored.code().getBytes(StandardCharsets.UTF_8), code)) {
+            validationRepository.recordFailedAttempt(stored.id());
+            if (validationRepository.deleteIfAttemptsReached(stored.id(), maxAttempts) > 0) {
+                removed(codeKey);
+                throw new RuntimeException("Too many invalid attempts. Please request a new code.");
+            }
+            throw new RuntimeException("Invalid code");
+        }
+
+        // Le code a pu etre consomme, remplace ou invalide entre la lecture et ici: seule la suppression fait foi
+        if (validationRepository.deleteCode(stored.id()) == 0) {
+            throw new RuntimeException("Invalid or expired code");
+        }
+        removed(codeKey);
+        return stored.userId();
+    }
+
+    private Long consumeInMemory(CodeKey codeKey, String code) {
+        PendingCode pending = codes.get(codeKey);
+        if (pending == null) {
+            throw new RuntimeException("Invalid or expired code");
+        }
+        if (!Instant.now().isBefore(pending.expiresAt())) {
+            if (codes.remove(codeKey, pending)) {
+                removed(codeKey);
+            }
+            throw new RuntimeException("Your code has expired. Please request a new one.");
+        }
+
+        if (!pending.matches(code)) {
+            if (pending.failedAttempt() >= maxAttempts) {
+                invalidate(codeKey, pending);
+                throw new RuntimeException("Too many invalid attempts. Please request a new code.");
+            }
+            throw new RuntimeException("Invalid code");
+        }
+
+        // Un seul appel peut consommer le code
+        if (!codes.remove(codeKey, pending)) {
+            throw new RuntimeException("Invalid or expired code");
+        }
+        removed(codeKey);
+        return pending.userId();
+    }
+
+    private void invalidate(CodeKey codeKey, PendingCode pending) {
+        if (codes.remove(codeKey, pending)) {
+            removed(codeKey);
+        }
+    }
+
+    private void removed(CodeKey codeKey) {
+        removalListener.accept(codeKey.email(), codeKey.purpose());
+    }
+
+    // Comparaison en temps constant
+    private static boolean matches(byte[] expected, String candidate) {
+        return MessageDigest.isEqual(expected, candidate.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String key(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record CodeKey(String email, CodePurpose purpose) {
+    }
+
+    private static final class PendingCode {
+        private final Long userId;
+        private final byte[] code;
+        private final Instant expiresAt;
+        private int failedAttempts;
+
+        private PendingCode(Long userId, String code, Instant expiresAt) {
+            this.userId = userId;
+            this.code = code.getBytes(StandardCharsets.UTF_8);
+            this.expiresAt = expiresAt;
+        }
+
+        private Long userId() {
+            return userId;
+        }
+
+        private Instant expiresAt() {
+            return expiresAt;
+        }
+
+        private boolean matches(String candidate) {
+            return VerificationCodeStore.matches(code, candidate);
+        }
+
+        private synchronized int failedAttempt() {
+            return ++failedAttempts;
+        }
+    }
+}
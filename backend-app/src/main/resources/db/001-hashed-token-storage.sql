@@ -0,0 +1,50 @@
+-- ===============================================
+-- Tokens are stored and looked up by their SHA-256 digest
+-- Run once on MySQL before deploying (spring.jpa.hibernate.ddl-auto=none)
+-- ===============================================
+
+RENAME TABLE `refresh-token` TO refresh_token;
+
+ALTER TABLE refresh_token ADD COLUMN token_hash BINARY(32) NULL;
+UPDATE refresh_token SET token_hash = UNHEX(SHA2(refresh_token_value, 256));
+ALTER TABLE refresh_token
+    MODIFY token_hash BINARY(32) NOT NULL,
+    DROP COLUMN refresh_token_value,
+    ADD UNIQUE INDEX ux_refresh_token_hash (token_hash);
+
+ALTER TABLE jwt
+    ADD COLUMN value_hash BINARY(32) NULL,
+    ADD COLUMN token_id VARCHAR(100) NULL,
+    ADD COLUMN expires_at DATETIME(6) NULL,
+    ADD COLUMN legacy_payload TEXT NULL;
+
+-- Set to the jwt.expiration of the deployment (milliseconds), only used for tokens without a readable exp claim
+SET @jwt_expiration_ms = 86400000;
+
+-- Payload of the token: second segment, base64url without padding
+UPDATE jwt
+SET legacy_payload = CONVERT(FROM_BASE64(RPAD(
+        REPLACE(REPLACE(SUBSTRING_INDEX(SUBSTRING_INDEX(value, '.', 2), '.', -1), '-', '+'), '_', '/'),
+        CEIL(LENGTH(SUBSTRING_INDEX(SUBSTRING_INDEX(value, '.', 2), '.', -1)) / 4) * 4,
+        '=')) USING utf8mb4);
+
+-- Tokens issued before the jti claim are identified by their signature segment.
+-- Their expiry is the exp claim of their payload.
+UPDATE jwt
+SET value_hash = UNHEX(SHA2(value, 256)),
+    token_id   = SUBSTRING_INDEX(value, '.', -1),
+    expires_at = IF(JSON_VALID(legacy_payload),
+                    FROM_UNIXTIME(CAST(JSON_EXTRACT(legacy_payload, '$.exp') AS UNSIGNED)),
+                    NULL);
+
+-- Sans claim exp lisible: date de creation du refresh token plus jwt.expiration
+UPDATE jwt j LEFT JOIN refresh_token r ON r.id = j.refresh_token_id
+SET j.expires_at = COALESCE(r.created_at, NOW(6)) + INTERVAL (@jwt_expiration_ms * 1000) MICROSECOND
+WHERE j.expires_at IS NULL;
+
+ALTER TABLE jwt
+    MODIFY value_hash BINARY(32) NOT NULL,
+    DROP COLUMN value,
+    DROP COLUMN legacy_payload,
+    ADD UNIQUE INDEX ux_jwt_value_hash (value_hash),
+    ADD INDEX ix_jwt_user_status (user_id, deactivate, expired);
@@ -0,0 +1,6 @@
+-- ===============================================
+-- Indexes used by the chunked purge of expired rows
+-- ===============================================
+
+ALTER TABLE jwt ADD INDEX ix_jwt_expires_at (expires_at);
+ALTER TABLE validation ADD INDEX ix_validation_expired_at (expired_at);
@@ -0,0 +1,8 @@
+-- ===============================================
+-- Unique email, so registration detects duplicates on insert
+-- ===============================================
+
+-- Must return no row before the index can be created
+SELECT email, COUNT(*) FROM users GROUP BY email HAVING COUNT(*) > 1;
+
+ALTER TABLE users ADD UNIQUE INDEX ux_users_email (email);
@@ -0,0 +1,10 @@
+-- ===============================================
+-- Verification codes are kept per (user, purpose)
+-- ===============================================
+
+ALTER TABLE validation ADD COLUMN purpose VARCHAR(32) NULL;
+
+-- Codes written before this change were all sent with the activation email
+UPDATE validation SET purpose = 'ACTIVATION' WHERE purpose IS NULL;
+
+ALTER TABLE validation ADD INDEX ix_validation_user_purpose (user_id, purpose);
@@ -0,0 +1,5 @@
+-- ===============================================
+-- Index used by the review feed filtered on status
+-- ===============================================
+
+ALTER TABLE avis ADD INDEX ix_avis_status_id (status, id);
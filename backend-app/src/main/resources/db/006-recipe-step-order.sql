@@ -0,0 +1,7 @@
+-- ===============================================
+-- Steps: "order" is a reserved word, the column becomes step_order
+-- and the steps of a recipe are read in order from an index
+-- ===============================================
+
+ALTER TABLE step CHANGE `order` step_order INT NOT NULL;
+ALTER TABLE step ADD INDEX ix_step_recipe_order (recipes_id, step_order);
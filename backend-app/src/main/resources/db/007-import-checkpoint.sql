@@ -0,0 +1,14 @@
+-- ===============================================
+-- Checkpoints of the bulk user imports
+-- ===============================================
+
+CREATE TABLE import_checkpoint (
+    job_id VARCHAR(64) NOT NULL PRIMARY KEY,
+    status VARCHAR(16),
+    processed BIGINT NOT NULL,
+    imported BIGINT NOT NULL,
+    duplicates BIGINT NOT NULL,
+    rejected BIGINT NOT NULL,
+    started_at DATETIME(6),
+    updated_at DATETIME(6)
+);
@@ -0,0 +1,5 @@
+-- ===============================================
+-- Wrong guesses of a verification code are counted in its row
+-- ===============================================
+
+ALTER TABLE validation ADD COLUMN failed_attempts INT NOT NULL DEFAULT 0;
@@ -0,0 +1,134 @@
+package com.ninehub.authentication.repository;
+
+import com.ninehub.authentication.dto.AvisCountDto;
+import com.ninehub.authentication.dto.AvisView;
+import com.ninehub.authentication.entity.Avis;
+import com.ninehub.authentication.entity.Role;
+import com.ninehub.authentication.entity.User;
+import com.ninehub.authentication.entity.enums.RoleType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class AvisRepositoryTest {
+
+    private static final int REVIEWS = 30;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AvisRepository avisRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // Un auteur et un role differents par avis: le pire cas pour les chargements eager
+        for (int i = 0; i < REVIEWS; i++) {
+            Role role = entityManager.persist(Role.builder().roleType(RoleType.USER).build());
+            User author = entityManager.persist(User.builder()
+                    .firstName("author" + i)
+                    .email("author" + i + "@example.com")
+                    .password("password")
+                    .isActif(true)
+                    .role(role)
+                    .build());
+            Avis avis = new Avis();
+            avis.setMessage("message " + i);
+            avis.setStatus(i % 3 == 0 ? "PUBLISHED" : "PENDING");
+            avis.setUser(author);
+            entityManager.persist(avis);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void feedPageIsServedByASingleQuery() {
+        List<AvisView> page = avisRepository.findFeed(Long.MAX_VALUE, null, PageRequest.of(0, REVIEWS));
+
+        assertEquals(REVIEWS, page.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertTrue(page.stream().allMatch(avis -> avis.authorFirstName().startsWith("author")));
+    }
+
+    @Test
+    void statusFilteredFeedIsServedByASingleQuery() {
+        List<AvisView> page = avisRepository.findFeed(Long.MAX_VALUE, "PUBLISHED", PageRequest.of(0, REVIEWS));
+
+        assertEquals(REVIEWS / 3, page.size());
+        assertTrue(page.stream().allMatch(avis -> avis.status().equals("PUBLISHED")));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void cursorPagesCoverEveryReviewOnceNewestFirst() {
+        List<Long> seen = new ArrayList<>();
+        long beforeId = Long.MAX_VALUE;
+        int pages = 0;
+        while (true) {
+            List<AvisView> page = avisRepository.findFeed(beforeId, null, PageRequest.of(0, 7));
+            page.forEach(avis -> seen.add(avis.id()));
+            pages++;
+            if (page.size() < 7) {
+                break;
+            }
+            beforeId = page.get(page.size() - 1).id();
+        }
+
+        assertEquals(REVIEWS, seen.size());
+        assertEquals(REVIEWS, seen.stream().distinct().count());
+        for (int i = 1; i < seen.size(); i++) {
+            assertTrue(seen.get(i - 1) > seen.get(i));
+        }
+        // Une requete par page, quelle que soit la taille de la page
+        assertEquals(pages, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void countsPerStatusAndAuthorComeFromOneGroupedQuery() {
+        List<AvisCountDto> counts = avisRepository.countByStatusAndUser();
+
+        assertEquals(REVIEWS, counts.size());
+        assertEquals(REVIEWS, counts.stream().mapToLong(AvisCountDto::count).sum());
+        assertEquals(REVIEWS / 3, counts.stream()
+                .filter(count -> count.status().equals("PUBLISHED"))
+                .mapToLong(AvisCountDto::count)
+                .sum());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void statusChangeOnlyAppliesToTheExpectedStatus() {
+        Long id = avisRepository.findFeed(Long.MAX_VALUE, "PENDING", PageRequest.of(0, 1)).get(0).id();
+
+        assertEquals(1, avisRepository.changeStatus(id, "PENDING", "PUBLISHED"));
+        // Un second moderateur qui a lu PENDING avant le changement ne modifie rien
+        assertEquals(0, avisRepository.changeStatus(id, "PENDING", "REJECTED"));
+        assertEquals(1, avisRepository.changeStatus(id, "PUBLISHED", null));
+        assertEquals(1, avisRepository.changeStatus(id, null, "PENDING"));
+
+        assertEquals("PENDING", avisRepository.findById(id).orElseThrow().getStatus());
+    }
+}
@@ -0,0 +1,56 @@
+package com.ninehub.authentication.repository;
+
+import com.ninehub.authentication.dto.TokenSession;
+import com.ninehub.authentication.entity.enums.RoleType;
+import com.ninehub.authentication.security.TokenDigest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InMemoryTokenStoreTest extends TokenStoreContractTest {
+
+    private final AtomicLong ids = new AtomicLong();
+    private InMemoryTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryTokenStore(16, "");
+    }
+
+    @Override
+    protected TokenStore store() {
+        return store;
+    }
+
+    @Override
+    protected Long createUser(String email) {
+        return ids.incrementAndGet();
+    }
+
+    @Test
+    void sessionsSurviveARestartThroughTheSnapshot(@TempDir Path dir) throws Exception {
+        String file = dir.resolve("sessions.bin").toString();
+        InMemoryTokenStore first = new InMemoryTokenStore(4, file);
+        first.loadSnapshot();
+        byte[] accessHash = TokenDigest.sha256(UUID.randomUUID().toString());
+        first.save(new TokenSession(accessHash, "token-id", Instant.now().plusSeconds(3600),
+                TokenDigest.sha256(UUID.randomUUID().toString()), Instant.now().plusSeconds(7200),
+                1L, "alice@example.com", "alice", RoleType.ADMIN, false));
+        first.writeSnapshot();
+
+        InMemoryTokenStore second = new InMemoryTokenStore(4, file);
+        second.loadSnapshot();
+
+        assertEquals(1, second.size());
+        TokenSession restored = second.findByAccessHash(accessHash).orElseThrow();
+        assertEquals("token-id", restored.tokenId());
+        assertEquals(RoleType.ADMIN, restored.roleType());
+    }
+}
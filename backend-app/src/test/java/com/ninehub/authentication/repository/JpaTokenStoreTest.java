@@ -0,0 +1,45 @@
+package com.ninehub.authentication.repository;
+
+import com.ninehub.authentication.entity.Role;
+import com.ninehub.authentication.entity.User;
+import com.ninehub.authentication.entity.enums.RoleType;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest
+@Import(JpaTokenStore.class)
+class JpaTokenStoreTest extends TokenStoreContractTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JpaTokenStore store;
+
+    private Role role;
+
+    @BeforeEach
+    void setUp() {
+        role = entityManager.persist(Role.builder().roleType(RoleType.USER).build());
+    }
+
+    @Override
+    protected TokenStore store() {
+        return store;
+    }
+
+    @Override
+    protected Long createUser(String email) {
+        User user = entityManager.persist(User.builder()
+                .firstName(email.substring(0, email.indexOf('@')))
+                .email(email)
+                .password("password")
+                .isActif(true)
+                .role(role)
+                .build());
+        return user.getId();
+    }
+}
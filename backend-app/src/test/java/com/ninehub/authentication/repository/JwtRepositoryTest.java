@@ -0,0 +1,138 @@
+package com.ninehub.authentication.repository;
+
+import com.ninehub.authentication.dto.ActiveTokenDto;
+import com.ninehub.authentication.entity.Jwt;
+import com.ninehub.authentication.entity.RefreshToken;
+import com.ninehub.authentication.entity.Role;
+import com.ninehub.authentication.entity.User;
+import com.ninehub.authentication.entity.enums.RoleType;
+import com.ninehub.authentication.security.TokenDigest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+class JwtRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JwtRepository jwtRepository;
+
+    private User alice;
+    private User bob;
+    private User carol;
+
+    @BeforeEach
+    void setUp() {
+        Role role = entityManager.persist(Role.builder().roleType(RoleType.USER).build());
+        alice = entityManager.persist(user("alice@example.com", role));
+        bob = entityManager.persist(user("bob@example.com", role));
+        carol = entityManager.persist(user("carol@example.com", role));
+
+        for (int i = 0; i < 3; i++) {
+            entityManager.persist(token(alice, false));
+        }
+        entityManager.persist(token(alice, true));
+        for (int i = 0; i < 2; i++) {
+            entityManager.persist(token(bob, false));
+        }
+        entityManager.persist(token(carol, false));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void bulkDeactivationDisablesAsManyRowsAsTheLoadAndSaveAllPath() {
+        // Ancien comportement: charger les jetons actifs puis les sauvegarder un par un
+        int expected = activeTokens(alice).size();
+
+        int disabled = deactivate(alice);
+        entityManager.clear();
+
+        assertEquals(3, expected);
+        assertEquals(expected, disabled);
+        assertTrue(activeTokens(alice).isEmpty());
+        assertEquals(2, activeTokens(bob).size());
+        assertEquals(1, activeTokens(carol).size());
+    }
+
+    @Test
+    void bulkDeactivationForSeveralUsersMatchesThePerUserCounts() {
+        int expected = activeTokens(alice).size() + activeTokens(bob).size();
+
+        int disabled = deactivate(alice, bob);
+        entityManager.clear();
+
+        assertEquals(expected, disabled);
+        assertTrue(activeTokens(alice).isEmpty());
+        assertTrue(activeTokens(bob).isEmpty());
+        assertEquals(1, activeTokens(carol).size());
+    }
+
+    @Test
+    void bulkDeactivationIsIdempotent() {
+        deactivate(alice);
+
+        assertEquals(0, deactivate(alice));
+    }
+
+    @Test
+    void onlyActiveTokensAreSelectedForRevocation() {
+        // Les trois jetons actifs, pas celui qui etait deja desactive
+        assertEquals(3, jwtRepository.findActiveTokensByUserIds(List.of(alice.getId())).size());
+        deactivate(alice);
+        assertTrue(jwtRepository.findActiveTokensByUserIds(List.of(alice.getId())).isEmpty());
+        assertEquals(2, jwtRepository.findActiveTokensByUserIds(List.of(bob.getId())).size());
+    }
+
+    private int deactivate(User... users) {
+        List<Long> userIds = Arrays.stream(users).map(User::getId).toList();
+        List<Long> ids = jwtRepository.findActiveTokensByUserIds(userIds).stream().map(ActiveTokenDto::id).toList();
+        return jwtRepository.deactivateAllByIds(ids);
+    }
+
+    private List<Jwt> activeTokens(User user) {
+        return jwtRepository.findByUserAndDeactivateAndExpired(user, false, false).orElse(Collections.emptyList());
+    }
+
+    private static User user(String email, Role role) {
+        return User.builder()
+                .firstName(email.substring(0, email.indexOf('@')))
+                .email(email)
+                .password("password")
+                .isActif(true)
+                .role(role)
+                .build();
+    }
+
+    private static Jwt token(User user, boolean disabled) {
+        String value = UUID.randomUUID().toString();
+        return Jwt.builder()
+                .valueHash(TokenDigest.sha256(value))
+                .tokenId(value)
+                .expiresAt(Instant.now().plus(1, ChronoUnit.HOURS))
+                .deactivate(disabled)
+                .expired(disabled)
+                .user(user)
+                .refreshToken(RefreshToken.builder()
+                        .tokenHash(TokenDigest.sha256("refresh-" + value))
+                        .createdAt(Instant.now())
+                        .expiredAt(Instant.now().plus(7, ChronoUnit.DAYS))
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.ninehub.authentication.repository;
+
+import com.ninehub.authentication.dto.RecipeDto;
+import com.ninehub.authentication.dto.StepDto;
+import com.ninehub.authentication.entity.Recipes;
+import com.ninehub.authentication.entity.Step;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class RecipesRepositoryTest {
+
+    private static final int RECIPES = 20;
+    private static final int STEPS = 4;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private RecipesRepository recipesRepository;
+
+    private Statistics statistics;
+    private Long firstId;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < RECIPES; i++) {
+            Recipes recipe = new Recipes();
+            recipe.setTitle("recipe " + i);
+            recipe.setCreatedAt(LocalDateTime.now());
+            // Etapes inserees dans le desordre pour verifier le tri
+            for (int order = STEPS; order >= 1; order--) {
+                Step step = new Step();
+                step.setOrder(order);
+                step.setInstructions("step " + order);
+                step.setRecipes(recipe);
+                recipe.getSteps().add(step);
+            }
+            entityManager.persist(recipe);
+            if (firstId == null) {
+                firstId = recipe.getId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void pageWithStepsLoadsInTwoQueries() {
+        List<RecipeDto> page = recipesRepository.findPageAfter(0L, PageRequest.of(0, RECIPES)).stream()
+                .map(RecipeDto::from)
+                .toList();
+
+        assertEquals(RECIPES, page.size());
+        assertEquals(RECIPES * STEPS, page.stream().mapToInt(recipe -> recipe.steps().size()).sum());
+        // Une requete pour les recettes, une pour les etapes de toute la page
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void recipeWithOrderedStepsLoadsInOneQuery() {
+        RecipeDto recipe = RecipeDto.from(recipesRepository.findWithStepsById(firstId).orElseThrow());
+
+        assertEquals(List.of(1, 2, 3, 4), recipe.steps().stream().map(StepDto::order).toList());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
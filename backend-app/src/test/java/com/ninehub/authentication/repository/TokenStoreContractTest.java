@@ -0,0 +1,186 @@
+package com.ninehub.authentication.repository;
+
+import com.ninehub.authentication.dto.RevokedTokenDto;
+import com.ninehub.authentication.dto.TokenSession;
+import com.ninehub.authentication.entity.enums.RoleType;
+import com.ninehub.authentication.security.TokenDigest;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Behaviour every {@link TokenStore} must share, run against each implementation.
+ * Transactional here because the test methods are declared on this class: Spring only rolls back
+ * the JPA tests when the annotation is found on the declaring class, outside Spring it is ignored.
+ */
+@Transactional
+abstract class TokenStoreContractTest {
+
+    protected abstract TokenStore store();
+
+    /**
+     * Create a user the sessions can belong to and return its id
+     */
+    protected abstract Long createUser(String email);
+
+    @Test
+    void savedSessionIsFoundByBothDigests() {
+        Long userId = createUser("alice@example.com");
+        TokenSession session = session(userId, "alice@example.com", Instant.now().plus(1, ChronoUnit.HOURS));
+
+        store().save(session);
+
+        TokenSession byAccess = store().findByAccessHash(session.accessHash()).orElseThrow();
+        assertEquals(session.tokenId(), byAccess.tokenId());
+        assertEquals(userId, byAccess.userId());
+        assertEquals("alice@example.com", byAccess.email());
+        assertEquals(RoleType.USER, byAccess.roleType());
+        assertFalse(byAccess.revoked());
+
+        TokenSession byRefresh = store().findByRefreshHash(session.refreshHash()).orElseThrow();
+        assertArrayEquals(session.accessHash(), byRefresh.accessHash());
+    }
+
+    @Test
+    void unknownDigestIsNotFound() {
+        assertTrue(store().findByAccessHash(TokenDigest.sha256("unknown")).isEmpty());
+        assertTrue(store().findByRefreshHash(TokenDigest.sha256("unknown")).isEmpty());
+    }
+
+    @Test
+    void revokeAllForUsersOnlyTouchesActiveSessionsOfThoseUsers() {
+        Long alice = createUser("alice@example.com");
+        Long bob = createUser("bob@example.com");
+        Instant expiresAt = Instant.now().plus(1, ChronoUnit.HOURS);
+        List<TokenSession> aliceSessions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            TokenSession session = session(alice, "alice@example.com", expiresAt);
+            store().save(session);
+            aliceSessions.add(session);
+        }
+        TokenSession bobSession = session(bob, "bob@example.com", expiresAt);
+        store().save(bobSession);
+
+        assertEquals(3, store().revokeAllForUsers(List.of(alice)).size());
+        // Deja revoquees: rien a faire la seconde fois
+        assertTrue(store().revokeAllForUsers(List.of(alice)).isEmpty());
+
+        for (TokenSession session : aliceSessions) {
+            assertTrue(store().findByAccessHash(session.accessHash()).orElseThrow().revoked());
+            assertTrue(store().findByRefreshHash(session.refreshHash()).orElseThrow().revoked());
+        }
+        assertFalse(store().findByAccessHash(bobSession.accessHash()).orElseThrow().revoked());
+    }
+
+    @Test
+    void revokeReturnsOnlyTheTokensItRevoked() {
+        Long alice = createUser("alice@example.com");
+        Instant expiresAt = Instant.now().plus(1, ChronoUnit.HOURS);
+        TokenSession first = session(alice, "alice@example.com", expiresAt);
+        store().save(first);
+        store().revokeAllForUsers(List.of(alice));
+
+        // Une nouvelle connexion ne relit pas les sessions revoquees auparavant
+        TokenSession second = session(alice, "alice@example.com", expiresAt);
+        store().save(second);
+        List<RevokedTokenDto> revoked = store().revokeAllForUsers(List.of(alice));
+        assertEquals(List.of(second.tokenId()), revoked.stream().map(RevokedTokenDto::tokenId).toList());
+        assertEquals(expiresAt.toEpochMilli(), revoked.get(0).expiresAt().toEpochMilli());
+    }
+
+    @Test
+    void replaceSessionsRevokesThePreviousSessionsAndSavesTheNewOne() {
+        Long alice = createUser("alice@example.com");
+        Instant expiresAt = Instant.now().plus(1, ChronoUnit.HOURS);
+        TokenSession first = session(alice, "alice@example.com", expiresAt);
+        assertTrue(store().replaceSessions(first).isEmpty());
+
+        TokenSession second = session(alice, "alice@example.com", expiresAt);
+        List<RevokedTokenDto> revoked = store().replaceSessions(second);
+
+        assertEquals(List.of(first.tokenId()), revoked.stream().map(RevokedTokenDto::tokenId).toList());
+        assertTrue(store().findByAccessHash(first.accessHash()).orElseThrow().revoked());
+        assertFalse(store().findByAccessHash(second.accessHash()).orElseThrow().revoked());
+    }
+
+    @Test
+    void revokedTokensAreVisitedUntilTheyExpire() {
+        Long alice = createUser("alice@example.com");
+        Instant now = Instant.now();
+        TokenSession live = session(alice, "alice@example.com", now.plus(1, ChronoUnit.HOURS));
+        TokenSession expired = session(alice, "alice@example.com", now.minus(1, ChronoUnit.HOURS));
+        store().save(live);
+        store().save(expired);
+        store().revokeAllForUsers(List.of(alice));
+
+        List<RevokedTokenDto> all = new ArrayList<>();
+        store().forEachRevokedToken(now, all::add);
+        assertEquals(List.of(live.tokenId()), all.stream().map(RevokedTokenDto::tokenId).toList());
+    }
+
+    @Test
+    void purgeDropsOnlySessionsWhichCanNoLongerBeUsed() {
+        Long alice = createUser("alice@example.com");
+        Instant now = Instant.now();
+        Instant past = now.minus(1, ChronoUnit.HOURS);
+        Instant future = now.plus(1, ChronoUnit.HOURS);
+
+        TokenSession active = session(alice, "alice@example.com", future);
+        // Jeton d'acces expire mais encore rafraichissable
+        TokenSession refreshable = session(alice, "alice@example.com", past);
+        TokenSession dead = new TokenSession(TokenDigest.sha256(UUID.randomUUID().toString()), UUID.randomUUID().toString(), past,
+                TokenDigest.sha256(UUID.randomUUID().toString()), past, alice, "alice@example.com", "alice", RoleType.USER, false);
+        store().save(active);
+        store().save(refreshable);
+        store().save(dead);
+
+        assertEquals(1, store().purgeExpired(now, 10));
+        assertEquals(0, store().purgeExpired(now, 10));
+
+        assertTrue(store().findByAccessHash(dead.accessHash()).isEmpty());
+        assertTrue(store().findByRefreshHash(dead.refreshHash()).isEmpty());
+        assertTrue(store().findByAccessHash(active.accessHash()).isPresent());
+        assertTrue(store().findByAccessHash(refreshable.accessHash()).isPresent());
+    }
+
+    @Test
+    void purgeHonoursTheChunkLimit() {
+        Long alice = createUser("alice@example.com");
+        Instant now = Instant.now();
+        for (int i = 0; i < 5; i++) {
+            store().save(session(alice, "alice@example.com", now.minus(1, ChronoUnit.HOURS)));
+        }
+        store().revokeAllForUsers(List.of(alice));
+
+        assertEquals(2, store().purgeExpired(now, 2));
+        assertEquals(2, store().purgeExpired(now, 2));
+        assertEquals(1, store().purgeExpired(now, 2));
+        assertEquals(0, store().purgeExpired(now, 2));
+    }
+
+    private static TokenSession session(Long userId, String email, Instant accessExpiresAt) {
+        String value = UUID.randomUUID().toString();
+        return new TokenSession(
+                TokenDigest.sha256(value),
+                UUID.randomUUID().toString(),
+                accessExpiresAt,
+                TokenDigest.sha256("refresh-" + value),
+                Instant.now().plus(7, ChronoUnit.DAYS),
+                userId,
+                email,
+                email.substring(0, email.indexOf('@')),
+                RoleType.USER,
+                false
+        );
+    }
+}
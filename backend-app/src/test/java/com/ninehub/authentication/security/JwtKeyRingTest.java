@@ -0,0 +1,150 @@
+package com.ninehub.authentication.security;
+
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtKeyRingTest {
+
+    private static final String LEGACY_SECRET = "dGhpcy1pcy1hLXRlc3Qtc2VjcmV0LXdpdGgtZW5vdWdoLWJ5dGVzLWZvci1oczI1Ng==";
+    private static final long ONE_DAY = 86_400_000L;
+    private static final Duration ACTIVATION_DELAY = Duration.ofHours(2);
+    private static final Duration JWKS_MAX_AGE = Duration.ofHours(1);
+
+    @Test
+    void instancesLoadingTheSameKeystoreVerifyEachOthersTokens() {
+        JwtKeyRing first = keystoreRing();
+        JwtKeyRing second = keystoreRing();
+
+        assertEquals(first.current().kid(), second.current().kid());
+        assertEquals(first.jwks(), second.jwks());
+        // La cle "next" du keystore n'est valide qu'a partir de 2099: publiee, mais ne signe pas
+        assertEquals(2, first.size());
+        assertTrue(new JwtVerifier(second).verify(sign(first.current())).isPresent());
+    }
+
+    @Test
+    void keyAddedToTheKeystoreIsPublishedBeforeItSigns() {
+        Instant now = Instant.now();
+        List<JwtKeyRing.KeyMaterial> keystore = new ArrayList<>(List.of(key(now.minus(10, ChronoUnit.DAYS))));
+        JwtKeyRing keyRing = ring(() -> List.copyOf(keystore));
+        JwtKeyRing.SigningKey before = keyRing.current();
+        String etag = keyRing.jwks().etag();
+
+        keystore.add(key(now));
+        keyRing.reload();
+
+        assertEquals(before.kid(), keyRing.current().kid());
+        assertEquals(2, keyRing.size());
+        assertFalse(etag.equals(keyRing.jwks().etag()));
+        assertFalse(keyRing.jwks().json().contains("\"d\""));
+    }
+
+    @Test
+    void supersededKeysVerifyUntilTheirTokensHaveExpired() {
+        Instant now = Instant.now();
+        JwtKeyRing.KeyMaterial oldest = key(now.minus(10, ChronoUnit.DAYS));
+        JwtKeyRing.KeyMaterial previous = key(now.minus(5, ChronoUnit.DAYS));
+        JwtKeyRing.KeyMaterial latest = key(now.minus(3, ChronoUnit.HOURS));
+        JwtKeyRing keyRing = ring(() -> List.of(latest, oldest, previous));
+        JwtVerifier verifier = new JwtVerifier(keyRing);
+
+        assertEquals(JwtKeyRing.SigningKey.of(latest).kid(), keyRing.current().kid());
+        assertEquals(2, keyRing.size());
+        assertTrue(verifier.verify(sign(JwtKeyRing.SigningKey.of(previous))).isPresent());
+        assertFalse(verifier.verify(sign(JwtKeyRing.SigningKey.of(oldest))).isPresent());
+    }
+
+    @Test
+    void keepsItsKeysWhenTheKeystoreCannotBeRead() {
+        JwtKeyRing.KeyMaterial key = key(Instant.now().minus(1, ChronoUnit.DAYS));
+        boolean[] readable = {true};
+        JwtKeyRing keyRing = ring(() -> {
+            if (!readable[0]) {
+                throw new IllegalStateException("Could not read the keystore");
+            }
+            return List.of(key);
+        });
+        String kid = keyRing.current().kid();
+
+        readable[0] = false;
+        keyRing.reload();
+
+        assertEquals(kid, keyRing.current().kid());
+        assertEquals(1, keyRing.size());
+    }
+
+    @Test
+    void rejectsUnknownKidsAndAcceptsLegacyTokensWithoutKid() {
+        JwtKeyRing keyRing = ring(() -> List.of(key(Instant.now())));
+        JwtKeyRing otherRing = ring(() -> List.of(key(Instant.now())));
+        JwtVerifier verifier = new JwtVerifier(keyRing);
+        assertFalse(verifier.verify(sign(otherRing.current())).isPresent());
+
+        String legacy = claims().signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(LEGACY_SECRET))).compact();
+        assertTrue(verifier.verify(legacy).isPresent());
+        assertFalse(new JwtVerifier(keystoreRing()).verify(legacy).isPresent());
+    }
+
+    @Test
+    void refusesToStartWithoutSharedKeys() {
+        assertThrows(IllegalStateException.class,
+                () -> new JwtKeyRing(ONE_DAY, "", "", ACTIVATION_DELAY, JWKS_MAX_AGE, ""));
+        assertThrows(IllegalStateException.class,
+                () -> new JwtKeyRing(ONE_DAY, "classpath:jwt-keys.p12", "wrong", ACTIVATION_DELAY, JWKS_MAX_AGE, ""));
+    }
+
+    @Test
+    void jwksMustExpireBeforeNewKeysSign() {
+        assertThrows(IllegalStateException.class,
+                () -> new JwtKeyRing(ONE_DAY, JWKS_MAX_AGE, JWKS_MAX_AGE, "", List::of));
+    }
+
+    // Keystore de test: "current" valide depuis 2020, "next" a partir de 2099 (mot de passe changeit)
+    private static JwtKeyRing keystoreRing() {
+        return new JwtKeyRing(ONE_DAY, "classpath:jwt-keys.p12", "changeit", ACTIVATION_DELAY, JWKS_MAX_AGE, "");
+    }
+
+    private static JwtKeyRing ring(Supplier<List<JwtKeyRing.KeyMaterial>> keys) {
+        return new JwtKeyRing(ONE_DAY, ACTIVATION_DELAY, JWKS_MAX_AGE, LEGACY_SECRET, keys);
+    }
+
+    private static JwtKeyRing.KeyMaterial key(Instant notBefore) {
+        KeyPair keyPair = Jwts.SIG.RS256.keyPair().build();
+        return new JwtKeyRing.KeyMaterial(keyPair, notBefore);
+    }
+
+    private static String sign(JwtKeyRing.SigningKey key) {
+        return claims()
+                .header().keyId(key.kid()).and()
+                .signWith(key.privateKey(), Jwts.SIG.RS256)
+                .compact();
+    }
+
+    private static JwtBuilder claims() {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(1, ChronoUnit.HOURS)))
+                .subject("user@example.com")
+                .claim("role", "USER");
+    }
+}
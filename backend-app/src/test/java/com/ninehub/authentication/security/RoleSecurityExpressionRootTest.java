@@ -0,0 +1,89 @@
+package com.ninehub.authentication.security;
+
+import com.ninehub.authentication.entity.enums.PermissionType;
+import com.ninehub.authentication.entity.enums.RoleType;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoleSecurityExpressionRootTest {
+
+    @Test
+    void maskAgreesWithTheAuthorityList() {
+        for (RoleType roleType : RoleType.values()) {
+            RoleSecurityExpressionRoot root = root(RoleAuthentication.of(
+                    new TokenPrincipal("user@example.com", "User", roleType)));
+
+            for (RoleType other : RoleType.values()) {
+                String authority = "ROLE_" + other.name();
+                assertEquals(listed(roleType, authority), root.hasAuthority(authority));
+            }
+            for (PermissionType permission : PermissionType.values()) {
+                assertEquals(listed(roleType, permission.name()), root.hasAuthority(permission.name()));
+            }
+            assertFalse(root.hasAuthority("ROLE_UNKNOWN"));
+            assertEquals(listed(roleType, "ROLE_ADMIN"), root.hasAnyAuthority("ROLE_UNKNOWN", "ROLE_ADMIN"));
+        }
+    }
+
+    @Test
+    void preAuthorizeExpressionsUseTheRoleRoot() throws NoSuchMethodException {
+        RoleMethodSecurityExpressionHandler handler = new RoleMethodSecurityExpressionHandler();
+        Expression expression = handler.getExpressionParser().parseExpression("hasAuthority('ROLE_ADMIN')");
+        SimpleMethodInvocation invocation = new SimpleMethodInvocation(this, Object.class.getMethod("toString"));
+
+        EvaluationContext admin = handler.createEvaluationContext(
+                () -> RoleAuthentication.of(new TokenPrincipal("a@example.com", "A", RoleType.ADMIN)), invocation);
+        EvaluationContext user = handler.createEvaluationContext(
+                () -> RoleAuthentication.of(new TokenPrincipal("b@example.com", "B", RoleType.USER)), invocation);
+
+        assertTrue(admin.getRootObject().getValue() instanceof RoleSecurityExpressionRoot);
+        assertTrue(expression.getValue(admin, Boolean.class));
+        assertFalse(expression.getValue(user, Boolean.class));
+    }
+
+    @Test
+    void authoritiesAreSharedByTheRole() {
+        Authentication first = RoleAuthentication.of(new TokenPrincipal("a@example.com", "A", RoleType.ADMIN));
+        Authentication second = RoleAuthentication.of(new TokenPrincipal("b@example.com", "B", RoleType.ADMIN));
+        assertSame(first.getAuthorities(), second.getAuthorities());
+    }
+
+    @Test
+    void canBeMarkedAsNotAuthenticatedOnly() {
+        Authentication authentication = RoleAuthentication.of(new TokenPrincipal("a@example.com", "A", RoleType.USER));
+        assertTrue(authentication.isAuthenticated());
+        assertThrows(IllegalArgumentException.class, () -> authentication.setAuthenticated(true));
+
+        authentication.setAuthenticated(false);
+        assertFalse(authentication.isAuthenticated());
+        assertEquals("RoleAuthentication[name=a@example.com, role=USER, authenticated=false]", authentication.toString());
+    }
+
+    @Test
+    void fallsBackToTheAuthorityListForOtherAuthentications() {
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                "admin", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN"));
+        assertTrue(root(authentication).hasAuthority("ROLE_ADMIN"));
+        assertFalse(root(authentication).hasAuthority("ROLE_USER"));
+    }
+
+    private static RoleSecurityExpressionRoot root(Authentication authentication) {
+        return new RoleSecurityExpressionRoot(() -> authentication);
+    }
+
+    private static boolean listed(RoleType roleType, String authority) {
+        return roleType.getAuthorities().stream().map(GrantedAuthority::getAuthority).anyMatch(authority::equals);
+    }
+}
@@ -0,0 +1,173 @@
+package com.ninehub.authentication.service;
+
+import com.ninehub.authentication.entity.User;
+import com.ninehub.authentication.repository.AvisRepository;
+import com.ninehub.authentication.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The writer commits its own transactions, as in the application.
+ * The multi-row INSERT is plain SQL with unquoted names: H2 runs in MySQL mode with lower case identifiers.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:avis;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AvisWriteBehindBufferTest {
+
+    private static final Duration LONG_INTERVAL = Duration.ofSeconds(30);
+
+    @Autowired
+    private AvisRepository avisRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private AvisWriteBehindBuffer buffer;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .firstName("Alice")
+                .email("alice@example.com")
+                .password("password")
+                .isActif(true)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (buffer != null) {
+            buffer.shutdown();
+        }
+        avisRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void writesABatchAsSoonAsItIsFull() throws InterruptedException {
+        buffer = buffer(new JdbcTemplate(dataSource), 10, 3, LONG_INTERVAL);
+
+        for (int i = 0; i < 3; i++) {
+            buffer.submit("Review " + i, "PENDING", user.getId());
+        }
+
+        awaitTrue(() -> buffer.flushedCount() == 3);
+        assertEquals(1, buffer.batchCount());
+        assertEquals(3, avisRepository.count());
+    }
+
+    @Test
+    void writesAPartialBatchOnceTheFlushIntervalHasElapsed() throws InterruptedException {
+        buffer = buffer(new JdbcTemplate(dataSource), 10, 100, Duration.ofMillis(100));
+
+        buffer.submit("Review", "PENDING", user.getId());
+
+        awaitTrue(() -> buffer.flushedCount() == 1);
+        assertEquals(1, buffer.batchCount());
+        assertEquals(1, avisRepository.count());
+    }
+
+    @Test
+    void rejectsSubmissionsWhileTheBufferIsFull() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Le premier INSERT bloque le writer: le buffer se remplit derriere lui
+        JdbcTemplate blocking = new JdbcTemplate(dataSource) {
+            @Override
+            public int update(String sql, Object... args) {
+                writing.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.update(sql, args);
+            }
+        };
+        buffer = buffer(blocking, 1, 1, Duration.ofMillis(10));
+
+        buffer.submit("First", "PENDING", user.getId());
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        buffer.submit("Second", "PENDING", user.getId());
+
+        assertThrows(RejectedExecutionException.class, () -> buffer.submit("Third", "PENDING", user.getId()));
+        assertEquals(1, buffer.rejectedCount());
+
+        release.countDown();
+        awaitTrue(() -> buffer.flushedCount() == 2);
+        assertEquals(2, avisRepository.count());
+    }
+
+    @Test
+    void dropsOnlyTheReviewRejectedByAConstraint() throws InterruptedException {
+        buffer = buffer(new JdbcTemplate(dataSource), 10, 3, LONG_INTERVAL);
+
+        buffer.submit("First", "PENDING", user.getId());
+        buffer.submit("Author deleted", "PENDING", user.getId() + 1000);
+        buffer.submit("Third", "PENDING", user.getId());
+
+        awaitTrue(() -> buffer.flushedCount() + buffer.failedCount() == 3);
+        assertEquals(2, buffer.flushedCount());
+        assertEquals(1, buffer.failedCount());
+        assertEquals(2, avisRepository.count());
+    }
+
+    @Test
+    void drainsTheBufferOnShutdownThenRejectsSubmissions() throws InterruptedException {
+        buffer = buffer(new JdbcTemplate(dataSource), 100, 100, LONG_INTERVAL);
+
+        for (int i = 0; i < 5; i++) {
+            buffer.submit("Review " + i, "PENDING", user.getId());
+        }
+        buffer.shutdown();
+
+        assertEquals(5, buffer.flushedCount());
+        assertEquals(0, buffer.bufferedCount());
+        assertEquals(5, avisRepository.count());
+        assertThrows(RejectedExecutionException.class, () -> buffer.submit("Late", "PENDING", user.getId()));
+    }
+
+    private AvisWriteBehindBuffer buffer(JdbcTemplate jdbcTemplate, int capacity, int batchSize, Duration flushInterval) {
+        AvisWriteBehindBuffer buffer = new AvisWriteBehindBuffer(jdbcTemplate, new TransactionTemplate(transactionManager),
+                new AvisStatistics(avisRepository, transactionManager), true, capacity, batchSize, flushInterval,
+                Duration.ofMillis(50), Duration.ofMillis(10), Duration.ofMillis(100));
+        buffer.start();
+        return buffer;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,92 @@
+package com.ninehub.authentication.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MailDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+    private MailDispatcher dispatcher;
+
+    MailDispatcherTest() {
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void sendsQueuedMessagesThroughTheWorkers() throws Exception {
+        dispatcher = new MailDispatcher(mailSender, 2, 10, 3, Duration.ofMillis(10), Duration.ofMillis(200));
+        dispatcher.start();
+
+        for (int i = 0; i < 5; i++) {
+            dispatcher.dispatch(message("user" + i + "@example.com"));
+        }
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 5));
+        assertEquals(5, greenMail.getReceivedMessages().length);
+        assertEquals(0, dispatcher.queueDepth());
+    }
+
+    @Test
+    void rejectsMessagesWhenTheQueueIsFull() throws Exception {
+        // No worker, so nothing drains the queue
+        dispatcher = new MailDispatcher(mailSender, 0, 1, 3, Duration.ofMillis(10), Duration.ofMillis(200));
+        dispatcher.start();
+
+        dispatcher.dispatch(message("first@example.com"));
+        assertThrows(RejectedExecutionException.class, () -> dispatcher.dispatch(message("second@example.com")));
+        assertEquals(1, dispatcher.queueDepth());
+    }
+
+    @Test
+    void retriesThenGivesUpWhenTheServerIsUnreachable() throws Exception {
+        JavaMailSenderImpl unreachable = new JavaMailSenderImpl();
+        unreachable.setHost("localhost");
+        unreachable.setPort(1);
+        dispatcher = new MailDispatcher(unreachable, 1, 10, 3, Duration.ofMillis(10), Duration.ofMillis(200));
+        dispatcher.start();
+
+        dispatcher.dispatch(message("user@example.com"));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dispatcher.failedCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, dispatcher.failedCount());
+        assertEquals(2, dispatcher.retryCount());
+        assertEquals(0, dispatcher.sentCount());
+    }
+
+    private MimeMessage message(String to) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom("noreply@dishup.com");
+        helper.setTo(to);
+        helper.setSubject("Account Activation - DishUp");
+        helper.setText("<p>123456</p>", true);
+        return message;
+    }
+}
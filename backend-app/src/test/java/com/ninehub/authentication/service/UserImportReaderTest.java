@@ -0,0 +1,67 @@
+package com.ninehub.authentication.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ninehub.authentication.dto.ImportUserRecord;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserImportReaderTest {
+
+    @Test
+    void splitsQuotedValues() {
+        assertEquals(List.of("a", "b,c", "say \"hi\"", ""), UserImportReader.splitCsv("a,\"b,c\",\"say \"\"hi\"\"\","));
+        assertEquals(List.of("", ""), UserImportReader.splitCsv(","));
+        assertNull(UserImportReader.splitCsv("a,\"b"));
+    }
+
+    @Test
+    void readsColumnsByHeaderName() {
+        UserImportReader reader = reader(UserImportReader.Format.CSV, """
+                Password, EMAIL ,firstName
+
+                secret,alice@example.com,Alice
+                other,"bob@example.com"
+                x,"unterminated
+                """);
+
+        UserImportReader.Line alice = reader.next();
+        assertEquals(3, alice.number());
+        assertEquals(new ImportUserRecord("alice@example.com", "Alice", "secret"), alice.record());
+        assertEquals(new ImportUserRecord("bob@example.com", null, "other"), reader.next().record());
+        UserImportReader.Line broken = reader.next();
+        assertNull(broken.record());
+        assertEquals("unterminated quote", broken.error());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void headerMustNameEmailAndPassword() {
+        UserImportReader reader = reader(UserImportReader.Format.CSV, "email,firstName\na@example.com,A\n");
+        assertThrows(RuntimeException.class, reader::next);
+    }
+
+    @Test
+    void malformedJsonLineDoesNotStopTheFile() {
+        UserImportReader reader = reader(UserImportReader.Format.NDJSON, """
+                {"email":"a@example.com","password":"p","extra":1}
+                {not json
+                {"email":"b@example.com","password":"q"}
+                """);
+
+        assertEquals("a@example.com", reader.next().record().email());
+        assertEquals("malformed JSON", reader.next().error());
+        assertEquals("b@example.com", reader.next().record().email());
+        assertNull(reader.next());
+    }
+
+    private static UserImportReader reader(UserImportReader.Format format, String content) {
+        return new UserImportReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format, new ObjectMapper());
+    }
+}
@@ -0,0 +1,167 @@
+package com.ninehub.authentication.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ninehub.authentication.dto.ImportReport;
+import com.ninehub.authentication.entity.ImportCheckpoint;
+import com.ninehub.authentication.entity.Role;
+import com.ninehub.authentication.entity.User;
+import com.ninehub.authentication.entity.enums.ImportStatus;
+import com.ninehub.authentication.entity.enums.RoleType;
+import com.ninehub.authentication.repository.ImportCheckpointRepository;
+import com.ninehub.authentication.repository.RoleRepository;
+import com.ninehub.authentication.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Imports commit their own transactions, as in the application.
+ * The multi-row INSERT is plain SQL with unquoted names: H2 runs in MySQL mode with lower case identifiers.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:import;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserImportServiceTest {
+
+    private static final String BCRYPT_HASH = "$2a$04$abcdefghijklmnopqrstuuWb0SAn6Gm/Gb/WbwJMPY1F9Szx0Y2tu";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private ImportCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private RegisteredEmailFilter registeredEmails;
+    private UserImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        roleRepository.save(Role.builder().roleType(RoleType.USER).build());
+        registeredEmails = new RegisteredEmailFilter(userRepository, transactionManager, 1000, 0.01, 0.1, 100, 100);
+        importService = new UserImportService(userRepository, checkpointRepository, new RoleCache(roleRepository),
+                registeredEmails, jdbcTemplate, new TransactionTemplate(transactionManager), new ObjectMapper(),
+                4, 1, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+        checkpointRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void duplicatesAreDroppedWithinTheFileAndAgainstTheTable() throws IOException {
+        userRepository.save(user("carol@example.com"));
+
+        ImportReport report = importCsv("dedupe", false, """
+                email,firstName,password
+                alice@example.com,Alice,secret
+                ALICE@example.com,Alice,secret
+                carol@example.com,Carol,secret
+                bob@example.com,Bob,secret
+                """);
+
+        assertEquals(ImportStatus.COMPLETED, report.status());
+        assertEquals(4, report.processed());
+        assertEquals(2, report.imported());
+        assertEquals(2, report.duplicates());
+        assertTrue(userRepository.findByEmail("bob@example.com").isPresent());
+    }
+
+    @Test
+    void emailMissedByTheFilterIsCountedAsDuplicate() throws IOException {
+        registeredEmails.build();
+        // Enregistre "ailleurs" apres la construction du filtre, qui ne le connait donc pas
+        userRepository.save(user("carol@example.com"));
+
+        ImportReport report = importCsv("filter-miss", false, """
+                email,password
+                carol@example.com,secret
+                dave@example.com,secret
+                """);
+
+        assertEquals(ImportStatus.COMPLETED, report.status());
+        assertEquals(1, report.imported());
+        assertEquals(1, report.duplicates());
+        assertTrue(userRepository.findByEmail("dave@example.com").isPresent());
+    }
+
+    @Test
+    void invalidRecordsAreRejectedWithoutFailingTheJob() throws IOException {
+        ImportReport report = importCsv("invalid", true, """
+                email,firstName,password
+                alice@example.com,Alice,plain-password
+                bob@example.com,%s,%s
+                carol@example.com,Carol,%s
+                """.formatted("b".repeat(300), BCRYPT_HASH, BCRYPT_HASH));
+
+        assertEquals(ImportStatus.COMPLETED, report.status());
+        assertEquals(1, report.imported());
+        assertEquals(2, report.rejected());
+        assertEquals("line 2: password is not a BCrypt hash", report.errors().get(0));
+        assertEquals("line 3: first name longer than 255 characters", report.errors().get(1));
+        assertEquals(BCRYPT_HASH, userRepository.findByEmail("carol@example.com").orElseThrow().getPassword());
+    }
+
+    @Test
+    void resumeSkipsTheCommittedRecords() throws IOException {
+        Instant now = Instant.now();
+        checkpointRepository.save(new ImportCheckpoint("resume", ImportStatus.FAILED, 2, 1, 0, 1, now, now));
+
+        ImportReport report = importCsv("resume", false, """
+                email,password
+                not-an-email,secret
+                alice@example.com,secret
+                bob@example.com,secret
+                carol@example.com,secret
+                """);
+
+        assertEquals(ImportStatus.COMPLETED, report.status());
+        assertEquals(4, report.processed());
+        assertEquals(3, report.imported());
+        assertFalse(userRepository.findByEmail("alice@example.com").isPresent());
+        assertTrue(userRepository.findByEmail("carol@example.com").isPresent());
+    }
+
+    private ImportReport importCsv(String jobId, boolean passwordsHashed, String content) throws IOException {
+        return importService.importUsers(jobId, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                UserImportReader.Format.CSV, passwordsHashed, true);
+    }
+
+    private static User user(String email) {
+        return User.builder()
+                .firstName("User")
+                .email(email)
+                .password("password")
+                .isActif(true)
+                .build();
+    }
+}
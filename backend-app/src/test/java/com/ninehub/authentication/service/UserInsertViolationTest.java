@@ -0,0 +1,48 @@
+package com.ninehub.authentication.service;
+
+import com.ninehub.authentication.entity.User;
+import com.ninehub.authentication.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Only a violation of the unique index on the email may be reported as a duplicate registration
+ */
+@DataJpaTest
+class UserInsertViolationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void duplicateEmailIsRecognised() {
+        userRepository.saveAndFlush(user("alice@example.com", "Alice"));
+
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(user("alice@example.com", "Alice")));
+        assertTrue(UserService.violatesEmailIndex(e));
+    }
+
+    @Test
+    void otherViolationsAreNotTakenForDuplicates() {
+        // first_name est limite a 255 caracteres
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(user("bob@example.com", "b".repeat(300))));
+        assertFalse(UserService.violatesEmailIndex(e));
+    }
+
+    private static User user(String email, String firstName) {
+        return User.builder()
+                .firstName(firstName)
+                .email(email)
+                .password("password")
+                .isActif(true)
+                .build();
+    }
+}
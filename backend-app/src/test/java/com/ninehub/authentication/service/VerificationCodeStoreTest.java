@@ -0,0 +1,81 @@
+package com.ninehub.authentication.service;
+
+import com.ninehub.authentication.entity.User;
+import com.ninehub.authentication.entity.enums.CodePurpose;
+import com.ninehub.authentication.repository.UserRepository;
+import com.ninehub.authentication.repository.ValidationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Two stores sharing the validation table behave like two instances of the service
+ */
+@DataJpaTest
+class VerificationCodeStoreTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private ValidationRepository validationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private VerificationCodeStore first;
+    private VerificationCodeStore second;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        first = store();
+        second = store();
+        user = userRepository.save(User.builder()
+                .firstName("Alice")
+                .email("alice@example.com")
+                .password("password")
+                .isActif(true)
+                .build());
+    }
+
+    @Test
+    void codeReplacedOnAnotherInstanceIsRejected() {
+        String replaced = first.issue(user, CodePurpose.PASSWORD_RESET);
+        String code = second.issue(user, CodePurpose.PASSWORD_RESET);
+
+        assertThrows(RuntimeException.class, () -> first.consume(user.getEmail(), CodePurpose.PASSWORD_RESET, replaced));
+        assertEquals(user.getId(), first.consume(user.getEmail(), CodePurpose.PASSWORD_RESET, code));
+    }
+
+    @Test
+    void codeIsConsumedOnceAcrossInstances() {
+        String code = first.issue(user, CodePurpose.PASSWORD_RESET);
+
+        assertEquals(user.getId(), second.consume(user.getEmail(), CodePurpose.PASSWORD_RESET, code));
+        assertThrows(RuntimeException.class, () -> first.consume(user.getEmail(), CodePurpose.PASSWORD_RESET, code));
+    }
+
+    @Test
+    void wrongGuessesAreCountedAcrossInstances() {
+        String code = first.issue(user, CodePurpose.PASSWORD_RESET);
+        String wrong = code.equals("000000") ? "111111" : "000000";
+
+        assertThrows(RuntimeException.class, () -> first.consume(user.getEmail(), CodePurpose.PASSWORD_RESET, wrong));
+        assertThrows(RuntimeException.class, () -> second.consume(user.getEmail(), CodePurpose.PASSWORD_RESET, wrong));
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> first.consume(user.getEmail(), CodePurpose.PASSWORD_RESET, wrong));
+        assertEquals("Too many invalid attempts. Please request a new code.", e.getMessage());
+
+        assertThrows(RuntimeException.class, () -> second.consume(user.getEmail(), CodePurpose.PASSWORD_RESET, code));
+    }
+
+    private VerificationCodeStore store() {
+        return new VerificationCodeStore(validationRepository, Duration.ofMinutes(15), MAX_ATTEMPTS, true, Duration.ofSeconds(1));
+    }
+}